@@ -1,9 +1,12 @@
 package com.project.test;
 
+import com.project.test.config.EmployeeProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(EmployeeProperties.class)
 public class TestingCourseApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,82 @@
+package com.project.test.cache;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.repository.EmployeeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+// In-memory Bloom filter of the emails stored in the employees table. A negative answer means
+// the email is certainly unused, a positive one still has to be confirmed by the database.
+// Deleted emails can't be removed from a Bloom filter, so it is rebuilt periodically.
+// Missing an email (e.g. one committed while a rebuild is running) only costs a lookup that
+// the unique index on email would have made anyway.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailBloomFilter {
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeProperties employeeProperties;
+
+    // Null until the first build completes, every email is then reported as possibly present
+    private volatile BloomFilter<CharSequence> filter;
+    private volatile BloomFilter<CharSequence> building;
+
+    public boolean mightContain(String email) {
+        BloomFilter<CharSequence> current = filter;
+        return current == null || current.mightContain(email);
+    }
+
+    public void put(String email) {
+        BloomFilter<CharSequence> current = filter;
+        if (current != null) {
+            current.put(email);
+        }
+        BloomFilter<CharSequence> next = building;
+        if (next != null) {
+            next.put(email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+        initialDelayString = "${employees.email-filter.rebuild-interval:PT6H}",
+        fixedDelayString = "${employees.email-filter.rebuild-interval:PT6H}"
+    )
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        EmployeeProperties.EmailFilter properties = employeeProperties.getEmailFilter();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        BloomFilter<CharSequence> next = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+            capacity(properties), properties.getFalsePositiveRate());
+        building = next;
+        try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+            emails.forEach(next::put);
+        } finally {
+            building = null;
+        }
+        filter = next;
+        log.info("Email Bloom filter rebuilt with approximately {} emails", next.approximateElementCount());
+    }
+
+    // Largest number of emails the filter can hold at the configured false positive rate
+    // without going over the memory budget: m = -n * ln(p) / ln(2)^2 bits
+    private static long capacity(EmployeeProperties.EmailFilter properties) {
+        double bits = properties.getMemoryBudget().toBytes() * 8.0;
+        long budgetCapacity = (long) (bits * Math.pow(Math.log(2), 2) / -Math.log(properties.getFalsePositiveRate()));
+        return Math.max(1, Math.min(properties.getExpectedEmails(), budgetCapacity));
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.project.test.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// The caches themselves are built by Spring Boot from the spring.cache.* properties,
+// the "nocache" profile switches them off to compare latencies with and without caching
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+
+}
@@ -0,0 +1,45 @@
+package com.project.test.config;
+
+import com.project.test.limit.ConcurrencyLimitFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Only the employee endpoints are limited, the actuator stays reachable while they shed load
+@Configuration
+@ConditionalOnProperty(prefix = "employees.concurrency-limit", name = "enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(EmployeeProperties employeeProperties,
+                                                                                 MeterRegistry meterRegistry,
+                                                                                 DataSource dataSource) {
+        EmployeeProperties.ConcurrencyLimit properties = employeeProperties.getConcurrencyLimit();
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+            new ConcurrencyLimitFilter(properties, meterRegistry,
+                maxLimit(properties, pool(dataSource, true)), maxLimit(properties, pool(dataSource, false))));
+        registration.addUrlPatterns("/api/v1/employees/*");
+        return registration;
+    }
+
+    private static int maxLimit(EmployeeProperties.ConcurrencyLimit properties, DataSource pool) {
+        if (properties.getRequestsPerConnection() <= 0 || !(pool instanceof HikariDataSource hikari)) {
+            return Integer.MAX_VALUE;
+        }
+        return (int) Math.ceil(hikari.getMaximumPoolSize() * properties.getRequestsPerConnection());
+    }
+
+    // The pool that read-only or read-write transactions take their connections from
+    private static DataSource pool(DataSource dataSource, boolean readOnly) {
+        if (ReadWriteRoutingDataSource.unwrap(dataSource) instanceof ReadWriteRoutingDataSource routing) {
+            return readOnly ? routing.getReplica() : routing.getPrimary();
+        }
+        return dataSource;
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.project.test.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Replaces the auto-configured datasource by a primary/replica pair as soon as
+// employees.replica.datasource.url is set, read-only transactions then use the replica pool.
+// With employees.bulkhead.separate-read-pool and no replica, that pool connects to the primary.
+@Configuration
+@Conditional(DataSourceConfig.OnReadPoolCondition.class)
+public class DataSourceConfig {
+
+    static class OnReadPoolCondition extends AnyNestedCondition {
+
+        OnReadPoolCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(prefix = "employees.replica.datasource", name = "url")
+        static class OnReplica {
+        }
+
+        @ConditionalOnProperty(prefix = "employees.bulkhead", name = "separate-read-pool", havingValue = "true")
+        static class OnSeparateReadPool {
+        }
+
+    }
+
+    @Bean(autowireCandidate = false)
+    @ConfigurationProperties("employees.replica.datasource")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("employees.replica.datasource.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties) {
+        DataSourceProperties replicaProperties = replicaDataSourceProperties().getUrl() == null
+            ? dataSourceProperties
+            : replicaDataSourceProperties();
+        return replicaProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        EmployeeProperties employeeProperties
+    ) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource,
+            replicaDataSource, employeeProperties.getReplica());
+        routingDataSource.setSeparateDatabase(replicaDataSourceProperties().getUrl() != null);
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+}
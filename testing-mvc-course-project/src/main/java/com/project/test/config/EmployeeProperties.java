@@ -0,0 +1,235 @@
+package com.project.test.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "employees")
+public class EmployeeProperties {
+
+    // Default number of employees returned by a keyset page when no limit is requested
+    private int defaultPageSize = 50;
+
+    // Upper bound of the page size a client is allowed to ask for
+    private int maxPageSize = 500;
+
+    // Upper bound of the rows returned by the unpaged listing
+    private int maxUnpagedSize = 1000;
+
+    // Rows per JDBC batch and per persistence context flush when creating many employees
+    private int batchSize = 50;
+
+    // Width of the id ranges updated by each transaction of a bulk update
+    private int bulkUpdateChunkSize = 10_000;
+
+    private final Export export = new Export();
+
+    private final EmailFilter emailFilter = new EmailFilter();
+
+    private final Replica replica = new Replica();
+
+    private final GroupCommit groupCommit = new GroupCommit();
+
+    private final Changes changes = new Changes();
+
+    private final Stream stream = new Stream();
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    private final Bulkhead bulkhead = new Bulkhead();
+
+    private final Sql sql = new Sql();
+
+    @Data
+    public static class Export {
+
+        // Number of rows written to the export response between two flushes
+        private int flushInterval = 500;
+
+        // Concurrent id range scans of a parallel export, each one holds a pooled connection
+        private int maxPartitions = 4;
+
+        // Parallel exports running at once, the others are answered with a 503
+        private int maxConcurrent = 2;
+
+        // Rows fetched per round-trip by the export scans
+        private int fetchSize = 1000;
+
+        // How long an export may write its response, in place of spring.mvc.async.request-timeout
+        private Duration timeout = Duration.ofMinutes(30);
+
+    }
+
+    @Data
+    public static class EmailFilter {
+
+        // When disabled every email is reported as possibly known and checked in the database
+        private boolean enabled = true;
+
+        private double falsePositiveRate = 0.01;
+
+        // Number of emails the filter is sized for, lowered if it doesn't fit in the memory budget
+        private long expectedEmails = 1_000_000;
+
+        private DataSize memoryBudget = DataSize.ofMegabytes(4);
+
+    }
+
+    // Read replica used by read-only transactions when employees.replica.datasource.url is set
+    @Data
+    public static class Replica {
+
+        // Reads go back to the primary while the replica is further behind than this
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        // Returns the replication lag of the replica in seconds, 0 (or null) on a primary
+        private String lagQuery = "SELECT CASE WHEN pg_is_in_recovery() "
+            + "THEN EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) ELSE 0 END";
+
+    }
+
+    @Data
+    public static class GroupCommit {
+
+        // When enabled single creates are queued and inserted together, one transaction per batch
+        private boolean enabled = false;
+
+        // Creates inserted by one transaction at most
+        private int maxBatchSize = 100;
+
+        // How long the first queued create waits for others to join its batch
+        private Duration maxWait = Duration.ofMillis(5);
+
+        // Creates waiting for a batch at most, callers block while the queue is full
+        private int queueCapacity = 10_000;
+
+        // How long the shutdown waits for the queued creates to be committed, the others then fail
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    }
+
+    @Data
+    public static class Changes {
+
+        // The feed only returns changes older than this, so that transactions still in flight
+        // with an earlier timestamp commit before the cursor moves past them
+        private Duration settleTime = Duration.ofSeconds(5);
+
+        // Tombstones are purged after this, older cursors can't be resumed anymore
+        private Duration tombstoneRetention = Duration.ofDays(30);
+
+    }
+
+    @Data
+    public static class Stream {
+
+        // Events buffered per client, a client that falls further behind is disconnected
+        private int bufferSize = 256;
+
+        // Comment sent to every client so that idle connections aren't closed by proxies
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        // Connections are closed after this and the clients reconnect
+        private Duration timeout = Duration.ofMinutes(30);
+
+        // Threads writing the events to the clients
+        private int senderThreads = 4;
+
+    }
+
+    @Data
+    public static class ConcurrencyLimit {
+
+        // When disabled every request is let through and waits for a pooled connection
+        private boolean enabled = true;
+
+        // Sent with the 503 of a rejected request
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        // Caps each limit to this many requests per connection of the pool it uses, 0 for no cap.
+        // Needed with virtual threads, Tomcat doesn't bound the number of concurrent requests anymore
+        private double requestsPerConnection = 0;
+
+        // GET and HEAD requests
+        private final Limit read = new Limit(20, 200, Duration.ofMillis(250));
+
+        private final Limit write = new Limit(10, 50, Duration.ofMillis(500));
+
+    }
+
+    @Data
+    public static class Limit {
+
+        private int initialLimit;
+
+        private int minLimit = 1;
+
+        private int maxLimit;
+
+        // A slower or failed request shrinks the limit, faster ones grow it back one at a time
+        private Duration latencyThreshold;
+
+        // Factor applied to the limit when it shrinks
+        private double backoffRatio = 0.9;
+
+        public Limit(int initialLimit, int maxLimit, Duration latencyThreshold) {
+            this.initialLimit = initialLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+
+    }
+
+    // Separate executors for the asynchronous reads and writes, so a burst of one doesn't starve the other
+    @Data
+    public static class Bulkhead {
+
+        // Gives the read-only transactions their own connection pool on the primary when no replica
+        // is configured, sized by employees.replica.datasource.hikari.*
+        private boolean separateReadPool = false;
+
+        private final Pool read = new Pool(16, 200);
+
+        private final Pool write = new Pool(4, 50);
+
+    }
+
+    @Data
+    public static class Pool {
+
+        private int threads;
+
+        // Tasks waiting for a thread at most, the next ones are rejected
+        private int queueCapacity;
+
+        public Pool(int threads, int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+
+    }
+
+    // Statement timing and logging, replaces spring.jpa.show-sql
+    @Data
+    public static class Sql {
+
+        private boolean enabled = true;
+
+        // Share of the statements logged without their bind values, from 0 to 1
+        private double sampleRate = 0.01;
+
+        // Statements slower than this are always logged with their bind values and call site
+        private Duration slowThreshold = Duration.ofMillis(200);
+
+        // Entries waiting for the logging thread at most, the next ones are dropped
+        private int logQueueCapacity = 1000;
+
+        // Query shapes timed separately, the next ones are timed together as "other"
+        private int maxShapes = 500;
+
+    }
+
+}
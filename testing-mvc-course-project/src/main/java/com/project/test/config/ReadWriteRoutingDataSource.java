@@ -0,0 +1,117 @@
+package com.project.test.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+// Sends read-only transactions to the replica and everything else to the primary. It must be
+// wrapped in a LazyConnectionDataSourceProxy, otherwise the connection is taken before the
+// transaction is flagged as read-only.
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final EmployeeProperties.Replica properties;
+
+    private volatile boolean replicaAvailable = true;
+    // False when the replica pool connects to the primary itself, e.g. a separate read pool without replica
+    private volatile boolean separateDatabase = true;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, EmployeeProperties.Replica properties) {
+        this.primary = primary;
+        this.replica = replica;
+        this.properties = properties;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaAvailable
+            ? Route.REPLICA
+            : Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.REPLICA) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                // Don't fail the read, the next check decides when the replica is back
+                log.warn("Replica is unreachable, routing reads to the primary", e);
+                replicaAvailable = false;
+            }
+        }
+        return primary.getConnection();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public DataSource getReplica() {
+        return replica;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    public void setSeparateDatabase(boolean separateDatabase) {
+        this.separateDatabase = separateDatabase;
+    }
+
+    // Whether read-only transactions currently read a copy that may be behind the last write
+    public boolean isReadingFromReplica() {
+        return separateDatabase && replicaAvailable;
+    }
+
+    // Pool that read-only transactions currently use, for the reads made outside of them
+    public DataSource getReadDataSource() {
+        return replicaAvailable ? replica : primary;
+    }
+
+    // Looks through the proxies around the application datasource, e.g. the lazy connection
+    // proxy and the SQL observer
+    public static DataSource unwrap(DataSource dataSource) {
+        while (dataSource instanceof DelegatingDataSource || dataSource instanceof ProxyDataSource) {
+            dataSource = dataSource instanceof DelegatingDataSource delegating
+                ? delegating.getTargetDataSource()
+                : ((ProxyDataSource) dataSource).getDataSource();
+        }
+        return dataSource;
+    }
+
+    // Takes the replica out of rotation while it lags or is down
+    @Scheduled(fixedDelayString = "${employees.replica.check-interval:PT5S}")
+    public void checkReplica() {
+        boolean available;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+            double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+            available = lagSeconds * 1000 <= properties.getMaxLag().toMillis();
+        } catch (SQLException e) {
+            available = false;
+        }
+        if (available != replicaAvailable) {
+            log.warn(available ? "Replica is back, routing reads to it" : "Replica is down or lagging, routing reads to the primary");
+        }
+        replicaAvailable = available;
+    }
+
+}
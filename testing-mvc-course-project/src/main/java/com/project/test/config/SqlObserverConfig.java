@@ -0,0 +1,45 @@
+package com.project.test.config;
+
+import com.project.test.sql.SqlObserver;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Wraps the application datasource, the auto-configured one or the routing proxy of DataSourceConfig,
+// so that every statement goes through the SqlObserver
+@Configuration
+@ConditionalOnProperty(prefix = "employees.sql", name = "enabled", matchIfMissing = true)
+public class SqlObserverConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public SqlObserver sqlObserver(EmployeeProperties employeeProperties, MeterRegistry meterRegistry) {
+        return new SqlObserver(employeeProperties.getSql(), meterRegistry);
+    }
+
+    // Static so that registering the post-processor doesn't create this configuration early
+    @Bean
+    public static BeanPostProcessor sqlObserverDataSourcePostProcessor(ObjectProvider<SqlObserver> sqlObserver) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                    || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(beanName, dataSource)
+                    .listener(sqlObserver.getObject())
+                    .build();
+            }
+        };
+    }
+
+}
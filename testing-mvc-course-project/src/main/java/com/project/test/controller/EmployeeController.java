@@ -1,23 +1,55 @@
 package com.project.test.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeeChanges;
+import com.project.test.dto.EmployeeFieldsPage;
+import com.project.test.dto.EmployeeImportResult;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.dto.EmployeePage;
+import com.project.test.dto.EmployeePatch;
+import com.project.test.event.EmployeeEventBroadcaster;
+import com.project.test.exception.ResourceAlreadyExists;
 import com.project.test.model.Employee;
+import com.project.test.service.EmployeeAsyncService;
 import com.project.test.service.EmployeeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/v1/employees")
 @RequiredArgsConstructor
 @Validated
-@CrossOrigin(origins = "*", allowedHeaders = "*")
+@CrossOrigin(origins = "*", allowedHeaders = "*", exposedHeaders = HttpHeaders.ETAG)
 public class EmployeeController {
 
     private final EmployeeService employeeService;
+    private final EmployeeAsyncService employeeAsyncService;
+    private final EmployeeProperties employeeProperties;
+    private final ObjectMapper objectMapper;
+    private final EmployeeEventBroadcaster employeeEventBroadcaster;
+    private final MeterRegistry meterRegistry;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -25,37 +57,242 @@ public class EmployeeController {
         return employeeService.createEmployee(employee);
     }
 
+    // Bulk writes run on the write bulkhead and free the request thread while they wait
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public CompletableFuture<List<Employee>> createEmployees(@RequestBody List<Employee> employees) {
+        return employeeAsyncService.createEmployees(employees);
+    }
+
+    // The request body is read as a stream and piped to the database, e.g.
+    // curl -T employees.csv -H "Content-Type: text/csv" -X POST .../api/v1/employees/import
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public EmployeeImportResult importEmployees(InputStream csv) {
+        return employeeService.importEmployees(csv);
+    }
+
     @GetMapping
     public List<Employee> getAllEmployees() {
         return employeeService.getEmployees();
     }
 
+    @GetMapping(params = {"after", "!fields"})
+    public EmployeePage getEmployeesPage(
+        @RequestParam("after") long after,
+        @RequestParam(name = "limit", defaultValue = "0") int limit
+    ) {
+        return employeeService.getEmployeesPage(after, limit);
+    }
+
+    @GetMapping(params = {"limit", "!after", "!fields"})
+    public EmployeePage getFirstEmployeesPage(@RequestParam("limit") int limit) {
+        return employeeService.getEmployeesPage(0L, limit);
+    }
+
+    // Only the requested columns are selected, e.g. ?fields=email for a dropdown, paged like the full employees
+    @GetMapping(params = "fields")
+    public EmployeeFieldsPage getEmployeesFields(
+        @RequestParam("fields") List<String> fields,
+        @RequestParam(name = "after", defaultValue = "0") long after,
+        @RequestParam(name = "limit", defaultValue = "0") int limit
+    ) {
+        return employeeService.getEmployeesFields(fields, after, limit);
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email) {
+        return employeeService.getEmployeeByEmail(email)
+            .map(EmployeeController::okWithETag)
+            .orElseGet(() -> notFound("getEmployeeByEmail"));
+    }
+
+    // Fetches many employees with one query instead of one request per id
+    @GetMapping(params = "ids")
+    public CompletableFuture<EmployeeLookup> getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds) {
+        return employeeAsyncService.getEmployeesByIds(employeeIds);
+    }
+
+    // Same as the ids parameter for lists that don't fit in a URL
+    @PostMapping("/lookup")
+    public CompletableFuture<EmployeeLookup> lookupEmployees(@RequestBody List<Long> employeeIds) {
+        return employeeAsyncService.getEmployeesByIds(employeeIds);
+    }
+
+    // Employees created, updated or deleted after the cursor, so a sync costs as much as
+    // what changed since the previous call rather than the whole table
+    @GetMapping("/changes")
+    public EmployeeChanges getEmployeeChanges(
+        @RequestParam(name = "since", required = false) String since,
+        @RequestParam(name = "limit", defaultValue = "0") int limit
+    ) {
+        return employeeService.getEmployeeChanges(since, limit);
+    }
+
+    // Server-Sent Events of the employees created, updated or deleted from now on, one
+    // connection per dashboard instead of polling the listing
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEmployeeChanges() {
+        return employeeEventBroadcaster.subscribe();
+    }
+
+    // Writes one JSON document per line while the rows are read, so the memory used
+    // doesn't depend on the number of exported employees
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportEmployees(HttpServletResponse response) {
+        ObjectWriter writer = objectMapper.writerFor(Employee.class);
+        int flushInterval = employeeProperties.getExport().getFlushInterval();
+        return export(response, outputStream -> {
+            int[] written = {0};
+            employeeService.exportEmployees(employee -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(employee));
+                    outputStream.write('\n');
+                    if (++written[0] % flushInterval == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        });
+    }
+
+    // Same output scanned by up to employees.export.max-partitions connections in parallel, still in id order
+    @GetMapping(value = "/export", params = "partitions", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> exportEmployeesInParallel(@RequestParam("partitions") int partitions,
+                                                        HttpServletResponse response) {
+        return export(response, outputStream -> employeeService.exportEmployeesInParallel(partitions, outputStream));
+    }
+
+    // Spring answers 304 without serializing the body when the If-None-Match header
+    // matches the ETag of the response
     @GetMapping("/{id}")
     public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") long employeeId) {
         return employeeService.getEmployeeById(employeeId)
-            .map(ResponseEntity::ok)
-            .orElseGet(() -> ResponseEntity.notFound().build());
+            .map(EmployeeController::okWithETag)
+            .orElseGet(() -> notFound("getEmployeeById"));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Employee> updateEmployee(
         @PathVariable("id") long employeeId,
-        @RequestBody Employee updatedEmployee
+        @RequestBody Employee updatedEmployee,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
+        Long expectedVersion = expectedVersion(ifMatch);
         return employeeService.getEmployeeById(employeeId)
             .map(employee -> {
-                employee.setFirstName(updatedEmployee.getFirstName());
-                employee.setLastName(updatedEmployee.getLastName());
-                employee.setEmail(updatedEmployee.getEmail());
-                Employee savedEmployee = employeeService.updateEmployee(employee);
-                return ResponseEntity.ok(savedEmployee);
-            }).orElseGet(() -> ResponseEntity.notFound().build());
+                // Work on a copy as the loaded employee may be the instance shared by the cache,
+                // the version from If-Match makes the UPDATE fail if the employee changed since
+                Employee savedEmployee = employeeService.updateEmployee(employee.toBuilder()
+                    .firstName(updatedEmployee.getFirstName())
+                    .lastName(updatedEmployee.getLastName())
+                    .email(updatedEmployee.getEmail())
+                    .version(expectedVersion == null ? employee.getVersion() : expectedVersion)
+                    .build());
+                return okWithETag(savedEmployee);
+            }).orElseGet(() -> notFound("updateEmployee"));
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Employee> patchEmployee(
+        @PathVariable("id") long employeeId,
+        @RequestBody EmployeePatch patch,
+        @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return employeeService.patchEmployee(employeeId, patch, expectedVersion(ifMatch))
+            .map(EmployeeController::okWithETag)
+            .orElseGet(() -> notFound("patchEmployee"));
+    }
+
+    // Rewrites all the matching employees without loading them, returns the number of updated employees
+    @PostMapping("/bulk-update")
+    public CompletableFuture<Integer> bulkUpdateEmployees(@RequestBody EmployeeBulkUpdate update) {
+        return employeeAsyncService.bulkUpdateEmployees(update);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteEmployeeById(@PathVariable("id") long employeeId) {
-        employeeService.deleteEmployee(employeeId);
+        if (!employeeService.deleteEmployee(employeeId)) {
+            return notFound("deleteEmployeeById");
+        }
         return ResponseEntity.ok("Employee is deleted successfully");
     }
 
+    // Returns the number of deleted employees
+    @DeleteMapping(params = "ids")
+    public CompletableFuture<Integer> deleteEmployees(@RequestParam("ids") List<Long> employeeIds) {
+        return employeeAsyncService.deleteEmployees(employeeIds);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    // The bulkhead queue is full
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, employeeProperties.getConcurrencyLimit().getRetryAfter().toSeconds())))
+            .body(e.getMessage());
+    }
+
+    // Thrown for the single and the batch creates as well as the updates
+    @ExceptionHandler(ResourceAlreadyExists.class)
+    public ResponseEntity<String> handleAlreadyExists(ResourceAlreadyExists e, HandlerMethod handlerMethod) {
+        countOutcome("already_exists", handlerMethod.getMethod().getName());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleVersionConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+    }
+
+    // Writes the body asynchronously like a StreamingResponseBody would, but with the export timeout.
+    // Nothing is committed before the first write, so errors raised up to then still get their status.
+    private WebAsyncTask<Void> export(HttpServletResponse response, StreamingResponseBody body) {
+        return new WebAsyncTask<>(employeeProperties.getExport().getTimeout().toMillis(), () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            body.writeTo(response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
+
+    private <T> ResponseEntity<T> notFound(String method) {
+        countOutcome("not_found", method);
+        return ResponseEntity.notFound().build();
+    }
+
+    // employees.outcomes counts the requests answered with a 404 or a 409, per controller method
+    private void countOutcome(String outcome, String method) {
+        meterRegistry.counter("employees.outcomes", "outcome", outcome, "method", method).increment();
+    }
+
+    private static ResponseEntity<Employee> okWithETag(Employee employee) {
+        return ResponseEntity.ok()
+            .eTag(Long.toString(employee.getVersion()))
+            .body(employee);
+    }
+
+    // Version expected by an If-Match header, null when any version is accepted
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        try {
+            return Long.parseLong(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new OptimisticLockingFailureException("Unknown employee version " + ifMatch);
+        }
+    }
+
 }
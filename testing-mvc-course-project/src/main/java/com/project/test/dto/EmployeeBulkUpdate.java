@@ -0,0 +1,26 @@
+package com.project.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Set-based update of every employee matching the filters, null fields are ignored
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeBulkUpdate {
+
+    // Filter on the part of the email after the @
+    private String emailDomain;
+
+    // Filter on the exact last name
+    private String lastName;
+
+    // Replaces the part of the email after the @
+    private String newEmailDomain;
+
+    private String newLastName;
+
+}
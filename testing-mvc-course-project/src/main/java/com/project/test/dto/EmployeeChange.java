@@ -0,0 +1,30 @@
+package com.project.test.dto;
+
+import com.project.test.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeChange {
+
+    // RESYNC is only pushed to the stream, after changes too large to be sent one by one: the
+    // clients catch up through the change feed
+    public enum Type { UPSERT, DELETE, RESYNC }
+
+    private Type type;
+
+    private long id;
+
+    private Instant changedAt;
+
+    // Current state of the employee, null for a deletion or a resync
+    private Employee employee;
+
+}
@@ -0,0 +1,25 @@
+package com.project.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeChanges {
+
+    // Ordered by change time then id
+    private List<EmployeeChange> changes;
+
+    // Cursor to pass as "since" on the next call, also returned when there is no change
+    private String nextCursor;
+
+    // True when more changes are already available after nextCursor
+    private boolean hasMore;
+
+}
@@ -0,0 +1,23 @@
+package com.project.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Same paging as EmployeePage for the employees reduced to some of their fields
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeFieldsPage {
+
+    private List<Map<String, Object>> employees;
+
+    // Id to pass as "after" to fetch the next page, null when this is the last page
+    private Long nextCursor;
+
+}
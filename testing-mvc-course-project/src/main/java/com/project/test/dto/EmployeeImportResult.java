@@ -0,0 +1,24 @@
+package com.project.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeImportResult {
+
+    private long inserted;
+
+    // Rows of the file that were not inserted: duplicated or already known emails, missing values
+    private long skipped;
+
+    private long durationMillis;
+
+    // Rows of the file processed per second
+    private long rowsPerSecond;
+
+}
@@ -0,0 +1,22 @@
+package com.project.test.dto;
+
+import com.project.test.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeLookup {
+
+    // Found employees in the order their ids were requested
+    private List<Employee> employees;
+
+    private List<Long> missingIds;
+
+}
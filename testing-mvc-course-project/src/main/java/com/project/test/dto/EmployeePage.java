@@ -0,0 +1,22 @@
+package com.project.test.dto;
+
+import com.project.test.model.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeePage {
+
+    private List<Employee> employees;
+
+    // Id to pass as "after" to fetch the next page, null when this is the last page
+    private Long nextCursor;
+
+}
@@ -0,0 +1,21 @@
+package com.project.test.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Partial update of an employee, null fields are left untouched
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeePatch {
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+}
@@ -0,0 +1,139 @@
+package com.project.test.event;
+
+import com.project.test.config.EmployeeProperties;
+import com.project.test.dto.EmployeeChange;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes the committed employee changes to the connected dashboards. Each client has its own
+// bounded buffer drained by a sender thread, so a slow client never delays the transaction that
+// published the change nor the other clients, it is disconnected once its buffer is full.
+@Slf4j
+@Component
+public class EmployeeEventBroadcaster implements DisposableBean {
+
+    // A null change is a heartbeat
+    private record Event(long id, EmployeeChange change) {
+    }
+
+    private final EmployeeProperties.Stream properties;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public EmployeeEventBroadcaster(EmployeeProperties employeeProperties) {
+        this.properties = employeeProperties.getStream();
+        this.sender = Executors.newFixedThreadPool(properties.getSenderThreads(),
+            new CustomizableThreadFactory("employee-stream-"));
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(properties.getBufferSize()));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Changes made outside a transaction are published right away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChange(EmployeeChange change) {
+        broadcast(new Event(eventIds.incrementAndGet(), change));
+    }
+
+    @Scheduled(fixedRateString = "${employees.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        broadcast(new Event(0L, null));
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void broadcast(Event event) {
+        subscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Event> buffer) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+
+        private void offer(Event event) {
+            if (!buffer.offer(event)) {
+                // The client will reconnect and catch up through the change feed
+                log.warn("Disconnecting a slow employee stream client, {} events pending", buffer.size());
+                subscribers.remove(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        // At most one sender drains a client at a time, which keeps its events in order
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while ((event = buffer.poll()) != null) {
+                    emitter.send(event.change() == null
+                        ? SseEmitter.event().comment("heartbeat")
+                        : SseEmitter.event()
+                            .id(Long.toString(event.id()))
+                            .name(event.change().getType().name().toLowerCase())
+                            .data(event.change(), MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client is gone, the container completes the emitter
+                subscribers.remove(this);
+                buffer.clear();
+            } finally {
+                draining.set(false);
+            }
+            if (!buffer.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+    }
+
+}
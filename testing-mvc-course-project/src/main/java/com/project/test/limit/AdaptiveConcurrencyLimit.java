@@ -0,0 +1,81 @@
+package com.project.test.limit;
+
+import com.project.test.config.EmployeeProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// AIMD concurrency limit driven by the observed latency: the limit grows by one when a request
+// completes under the latency threshold while the limit is in use, and is multiplied by the
+// backoff ratio when a request is slower or fails. Requests started before the last decrease
+// don't shrink it again, they ran under the previous limit.
+public class AdaptiveConcurrencyLimit {
+
+    private final EmployeeProperties.Limit properties;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // A lock rather than synchronized, which pins a virtual thread to its carrier
+    private final Lock lock = new ReentrantLock();
+
+    private volatile double limit;
+    private boolean decreased;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimit(EmployeeProperties.Limit properties) {
+        this(properties, properties.getMaxLimit());
+    }
+
+    // The limit never grows over maxLimit even if the properties allow more
+    public AdaptiveConcurrencyLimit(EmployeeProperties.Limit properties, int maxLimit) {
+        this.properties = properties;
+        this.maxLimit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), maxLimit));
+        this.limit = Math.min(properties.getInitialLimit(), this.maxLimit);
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // Releases the slot without adjusting the limit, for requests whose duration says nothing
+    // about the database, like the ones continued asynchronously
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long startNanos, long endNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        boolean overloaded = failed || endNanos - startNanos > properties.getLatencyThreshold().toNanos();
+        lock.lock();
+        try {
+            if (overloaded) {
+                if (!decreased || startNanos - lastDecrease > 0) {
+                    limit = Math.max(properties.getMinLimit(), limit * properties.getBackoffRatio());
+                    decreased = true;
+                    lastDecrease = endNanos;
+                }
+            } else if (current * 2 >= limit) {
+                // Only grow while at least half of the limit is used, idle time proves nothing
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.project.test.limit;
+
+import com.project.test.config.EmployeeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Sheds the requests above the adaptive limits with an immediate 503 instead of letting them
+// queue on the connection pool until they time out. Reads and writes have separate limits so
+// that slow writes don't starve the reads, and the other way around.
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final String retryAfter;
+    private final Counter readRejections;
+    private final Counter writeRejections;
+
+    public ConcurrencyLimitFilter(EmployeeProperties.ConcurrencyLimit properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    public ConcurrencyLimitFilter(EmployeeProperties.ConcurrencyLimit properties, MeterRegistry meterRegistry,
+                                  int readMaxLimit, int writeMaxLimit) {
+        this.readLimit = new AdaptiveConcurrencyLimit(properties.getRead(), readMaxLimit);
+        this.writeLimit = new AdaptiveConcurrencyLimit(properties.getWrite(), writeMaxLimit);
+        this.retryAfter = Long.toString(Math.max(1, properties.getRetryAfter().toSeconds()));
+        this.readRejections = registerMeters(meterRegistry, "read", readLimit);
+        this.writeRejections = registerMeters(meterRegistry, "write", writeLimit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean read = isRead(request);
+        AdaptiveConcurrencyLimit limit = read ? readLimit : writeLimit;
+        if (!limit.tryAcquire()) {
+            (read ? readRejections : writeRejections).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Streams and exports outlive the request thread, their duration isn't a latency
+                limit.release();
+            } else {
+                limit.release(start, System.nanoTime(), failed);
+            }
+        }
+    }
+
+    public AdaptiveConcurrencyLimit getReadLimit() {
+        return readLimit;
+    }
+
+    public AdaptiveConcurrencyLimit getWriteLimit() {
+        return writeLimit;
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    private static Counter registerMeters(MeterRegistry meterRegistry, String kind, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("employees.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+            .tag("kind", kind)
+            .register(meterRegistry);
+        Gauge.builder("employees.concurrency.in-flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+            .tag("kind", kind)
+            .register(meterRegistry);
+        return Counter.builder("employees.concurrency.rejected")
+            .tag("kind", kind)
+            .register(meterRegistry);
+    }
+
+}
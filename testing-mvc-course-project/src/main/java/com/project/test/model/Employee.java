@@ -5,16 +5,39 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity
-@Table(name = "employees")
+// UPDATE statements only contain the columns that actually changed
+@DynamicUpdate
+// Kept in the second-level cache, READ_WRITE locks the entry while a transaction updates the employee
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "employees", indexes = {
+    @Index(name = "uk_employees_email", columnList = "email", unique = true),
+    // Serves the change feed, which seeks on (updated_at, id)
+    @Index(name = "idx_employees_updated_at", columnList = "updated_at, id")
+})
 public class Employee {
+    // Every nextval on employees_seq reserves this many ids, the bulk import reserves its ids the same way
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // A pooled sequence lets Hibernate assign ids without a round-trip per row, IDENTITY
+    // would need the generated key of every insert and disables JDBC batching
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     @Column(name = "first_name", nullable = false)
@@ -25,4 +48,20 @@ public class Employee {
 
     @Column(name = "email", nullable = false)
     private String email;
+
+    // Optimistic lock version, also used as the ETag of the employee
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    @CreationTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
 }
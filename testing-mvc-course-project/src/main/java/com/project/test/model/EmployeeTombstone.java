@@ -0,0 +1,28 @@
+package com.project.test.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Left behind by a deleted employee so the change feed can report the deletion
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_tombstones", indexes = {
+    @Index(name = "idx_employee_tombstones_deleted_at", columnList = "deleted_at, employee_id")
+})
+public class EmployeeTombstone {
+    // Employee ids come from a sequence and are never reused, so they identify the tombstone
+    @Id
+    @Column(name = "employee_id")
+    private long employeeId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
@@ -0,0 +1,27 @@
+package com.project.test.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// Deletion time of the newest tombstone purged so far, the change feed can't tell a cursor from
+// before it about the deletions it missed. The table holds a single row.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "employee_tombstone_purges")
+public class EmployeeTombstonePurge {
+    public static final long ID = 1L;
+
+    @Id
+    private long id;
+
+    @Column(name = "purged_until", nullable = false)
+    private Instant purgedUntil;
+}
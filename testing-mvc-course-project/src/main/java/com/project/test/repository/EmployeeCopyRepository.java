@@ -0,0 +1,151 @@
+package com.project.test.repository;
+
+import com.project.test.model.Employee;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk loads employees with the PostgreSQL COPY protocol, which streams the rows to the server
+// without a statement per row. Must be called inside a transaction.
+@Timed("employees.repository")
+@Repository
+@RequiredArgsConstructor
+public class EmployeeCopyRepository {
+
+    public record CopyResult(long copied, long inserted) {
+    }
+
+    // The staging table has no constraint, so duplicates, incomplete rows and emails that are already
+    // taken are filtered into a numbered table instead of failing the whole COPY. The rows then take
+    // their ids from blocks reserved with one nextval per block like the pooled Hibernate generator
+    // does, so the imported ids are dense and never collide with the ones Hibernate hands out.
+    // The rows are stamped with the time of the merge rather than the start of the transaction,
+    // which may be long before the commit when the file is large.
+    private static final String CREATE_STAGING_TABLE =
+        "CREATE TEMPORARY TABLE employees_import (first_name text, last_name text, email text) ON COMMIT DROP";
+    private static final String COPY_CSV =
+        "COPY employees_import (first_name, last_name, email) FROM STDIN WITH (FORMAT csv, HEADER true)";
+    private static final String NUMBER_STAGED_ROWS = """
+        CREATE TEMPORARY TABLE employees_import_rows ON COMMIT DROP AS
+        SELECT row_number() OVER (ORDER BY email) - 1 AS position, first_name, last_name, email
+        FROM (
+            SELECT DISTINCT ON (email) first_name, last_name, email
+            FROM employees_import
+            WHERE email IS NOT NULL AND first_name IS NOT NULL AND last_name IS NOT NULL
+            ORDER BY email
+        ) AS staged
+        WHERE NOT EXISTS (SELECT 1 FROM employees WHERE employees.email = staged.email)
+        """;
+    private static final String COUNT_STAGED_ROWS = "SELECT count(*) FROM employees_import_rows";
+    private static final String RESERVE_ID_BLOCKS = "SELECT nextval('employees_seq') FROM generate_series(1, ?)";
+    // An email taken by a concurrent insert since the rows were numbered only leaves a hole in a block
+    private static final String MERGE_STAGED_ROWS = """
+        INSERT INTO employees (id, first_name, last_name, email, version, created_at, updated_at)
+        SELECT (?::bigint[])[(position / %1$d)::int + 1] - %1$d + 1 + position %% %1$d,
+            first_name, last_name, email, 0, clock_timestamp(), clock_timestamp()
+        FROM employees_import_rows
+        ON CONFLICT (email) DO NOTHING
+        """.formatted(Employee.ID_ALLOCATION_SIZE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // Expects a first_name,last_name,email header followed by one employee per line
+    public CopyResult copyCsv(InputStream csv) {
+        return jdbcTemplate.execute((ConnectionCallback<CopyResult>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_STAGING_TABLE);
+                long copied = copy(connection, csv);
+                statement.execute(NUMBER_STAGED_ROWS);
+                long inserted = merge(connection, countStagedRows(statement));
+                if (inserted > 0) {
+                    evictQueryCacheAfterCommit();
+                }
+                return new CopyResult(copied, inserted);
+            }
+        });
+    }
+
+    // Hibernate doesn't see this insert, the cached query results could still miss the new employees.
+    // The cached entities stay valid as existing rows are never updated.
+    private void evictQueryCacheAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().unwrap(Cache.class).evictQueryRegions();
+            }
+        });
+    }
+
+    private static long countStagedRows(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(COUNT_STAGED_ROWS)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static long merge(Connection connection, long rows) throws SQLException {
+        if (rows == 0) {
+            return 0;
+        }
+        int blockSize = Employee.ID_ALLOCATION_SIZE;
+        Long[] blocks = reserveIdBlocks(connection, (int) ((rows + blockSize - 1) / blockSize));
+        try (PreparedStatement statement = connection.prepareStatement(MERGE_STAGED_ROWS)) {
+            statement.setArray(1, connection.createArrayOf("bigint", blocks));
+            return statement.executeUpdate();
+        }
+    }
+
+    // Each nextval reserves the ids up to the value it returns, a value below the size of a block comes
+    // from a fresh sequence whose block would start below 1 and is left to Hibernate
+    private static Long[] reserveIdBlocks(Connection connection, int count) throws SQLException {
+        List<Long> blocks = new ArrayList<>(count);
+        try (PreparedStatement statement = connection.prepareStatement(RESERVE_ID_BLOCKS)) {
+            while (blocks.size() < count) {
+                statement.setInt(1, count - blocks.size());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        long block = resultSet.getLong(1);
+                        if (block >= Employee.ID_ALLOCATION_SIZE) {
+                            blocks.add(block);
+                        }
+                    }
+                }
+            }
+        }
+        return blocks.toArray(Long[]::new);
+    }
+
+    private static long copy(Connection connection, InputStream csv) throws SQLException {
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_CSV, csv);
+        } catch (SQLException e) {
+            // Data exceptions are problems of the uploaded file, not of the database
+            if (e.getSQLState() != null && e.getSQLState().startsWith("22")) {
+                throw new IllegalArgumentException("Invalid CSV: " + e.getMessage(), e);
+            }
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -1,19 +1,95 @@
 package com.project.test.repository;
 
 import com.project.test.model.Employee;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 // We don't add here the repository annotation as JpaRepository will be attached
 // to Bean of type SimpleJpaRepository which has @Repository annotation and @Transaction annotation also
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
+    // Cacheable queries keep their results in the second-level query cache until the employees
+    // table is written, any other query can opt in with the same hint. Unlike the inherited methods,
+    // the declared ones aren't transactional by default, the single lookups are made read-only to
+    // run on the replica.
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT e FROM Employee e WHERE e.email = :email")
     Optional<Employee> findByEmail(String email);
 
+    // The same lookups for the reads served by a replica, which may be behind the last write: the rows
+    // they load are not put into the second-level cache nor their results into the query cache
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    @Query("SELECT e FROM Employee e WHERE e.id = :id")
+    Optional<Employee> findUncachedById(long id);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    @Query("SELECT e FROM Employee e WHERE e.email = :email")
+    Optional<Employee> findUncachedByEmail(String email);
+
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT e FROM Employee e WHERE e.firstName = ?1 AND e.lastName = ?2")
     Optional<Employee> findByJpql(String firstName, String lastName);
 
+    // Keyset (seek) pagination: WHERE id > ? ORDER BY id LIMIT ? walks the primary key index,
+    // so the cost of a page doesn't depend on how deep the client has scrolled. Like the other scans
+    // it runs on the replica and bypasses the second-level cache: the rows it reads are not put there,
+    // they may be behind the primary and would push out the entries of the single lookups.
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    @Override
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    List<Employee> findAllById(Iterable<Long> ids);
+
+    // Unlike deleteById these don't load the entities first and report how many rows were deleted
+    @Modifying
+    @Query("DELETE FROM Employee e WHERE e.id = :id")
+    int deleteEmployeeById(long id);
+
+    // Locks the rows about to be deleted, a concurrent delete of the same ids then waits and finds nothing
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN :ids")
+    List<Long> lockExistingIds(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Employee e WHERE e.id IN :ids")
+    int deleteEmployeesByIds(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT e.email FROM Employee e")
+    Stream<String> streamAllEmails();
+
+    @Query("SELECT MIN(e.id) FROM Employee e")
+    Optional<Long> findMinId();
+
+    @Query("SELECT MAX(e.id) FROM Employee e")
+    Optional<Long> findMaxId();
+
+    // Rows changed after the (updatedAt, id) cursor and before until, in cursor order
+    @Query("SELECT e FROM Employee e "
+        + "WHERE (e.updatedAt > :updatedAt OR (e.updatedAt = :updatedAt AND e.id > :id)) "
+        + "AND e.updatedAt < :until ORDER BY e.updatedAt, e.id")
+    List<Employee> findChangedAfter(Instant updatedAt, long id, Instant until, Limit limit);
+
 }
@@ -0,0 +1,25 @@
+package com.project.test.repository;
+
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.model.Employee;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface EmployeeRepositoryCustom {
+
+    // Selects only the given attributes of the employees after the given id, ordered by id.
+    // Rows come back as attribute name to value maps, no entity is created or managed.
+    List<Map<String, Object>> findFieldsByIdGreaterThan(List<String> fields, long id, int limit);
+
+    // Streams the whole table through a server side cursor reading fetchSize rows per round-trip,
+    // the stream must be consumed inside a transaction and closed afterward
+    Stream<Employee> streamAll(int fetchSize);
+
+    // Applies the update with a single UPDATE statement to the matching employees whose id is in
+    // [fromId, toId], bumping their version and update time. Returns the number of updated rows.
+    int bulkUpdate(EmployeeBulkUpdate update, long fromId, long toId, Instant updatedAt);
+
+}
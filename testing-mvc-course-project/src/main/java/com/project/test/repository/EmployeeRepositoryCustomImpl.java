@@ -0,0 +1,97 @@
+package com.project.test.repository;
+
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.model.Employee;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFieldsByIdGreaterThan(List<String> fields, long id, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        List<Selection<?>> selections = fields.stream()
+            .<Selection<?>>map(field -> employee.get(field).alias(field))
+            .toList();
+        query.multiselect(selections)
+            .where(criteriaBuilder.greaterThan(employee.get("id"), id))
+            .orderBy(criteriaBuilder.asc(employee.get("id")));
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .getResultStream()
+            .map(tuple -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                fields.forEach(field -> row.put(field, tuple.get(field)));
+                return row;
+            })
+            .toList();
+    }
+
+    @Override
+    public Stream<Employee> streamAll(int fetchSize) {
+        return entityManager.createQuery("SELECT e FROM Employee e ORDER BY e.id", Employee.class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+            .getResultStream();
+    }
+
+    @Override
+    public int bulkUpdate(EmployeeBulkUpdate update, long fromId, long toId, Instant updatedAt) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> query = criteriaBuilder.createCriteriaUpdate(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+        Path<String> email = employee.get("email");
+        if (update.getNewEmailDomain() != null) {
+            // Keeps everything up to and including the @
+            query.set(email, criteriaBuilder.concat(
+                criteriaBuilder.substring(email, criteriaBuilder.literal(1), criteriaBuilder.locate(email, "@")),
+                update.getNewEmailDomain()));
+        }
+        if (update.getNewLastName() != null) {
+            query.set(employee.<String>get("lastName"), update.getNewLastName());
+        }
+        // Same effect as an update through the entity for the ETags and the change feed
+        query.set(employee.<Long>get("version"), criteriaBuilder.sum(employee.get("version"), 1L));
+        query.set(employee.<Instant>get("updatedAt"), updatedAt);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.between(employee.get("id"), fromId, toId));
+        if (update.getEmailDomain() != null) {
+            predicates.add(criteriaBuilder.like(email, "%@" + escapeLike(update.getEmailDomain()), '\\'));
+        }
+        if (update.getLastName() != null) {
+            predicates.add(criteriaBuilder.equal(employee.get("lastName"), update.getLastName()));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        return entityManager.createQuery(query).executeUpdate();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.project.test.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// The employees were numbered by an identity column before the pooled employees_seq sequence, which
+// ddl-auto creates starting at 1 on an existing database. The sequence is moved past the highest id
+// before the application serves any request, it is never moved back so restarts are harmless.
+@Slf4j
+@Component
+// The schema, and with it the sequence, is only up to date once the entity manager factory is built
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class EmployeeSequenceInitializer implements InitializingBean {
+
+    // The pooled generator hands out the ids up to the value returned by nextval, so the sequence only
+    // lags when an id is above its last value
+    private static final String ALIGN_SEQUENCE = """
+        SELECT setval('employees_seq', max_id)
+        FROM (SELECT MAX(id) AS max_id FROM employees) AS employees_max
+        WHERE max_id > (SELECT last_value FROM employees_seq)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+            "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+        if (!postgres) {
+            return;
+        }
+        jdbcTemplate.queryForList(ALIGN_SEQUENCE, Long.class)
+            .forEach(maxId -> log.info("Moved employees_seq past the existing employee id {}", maxId));
+    }
+
+}
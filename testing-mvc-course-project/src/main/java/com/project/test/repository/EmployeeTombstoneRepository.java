@@ -0,0 +1,32 @@
+package com.project.test.repository;
+
+import com.project.test.model.EmployeeTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmployeeTombstoneRepository extends JpaRepository<EmployeeTombstone, Long> {
+
+    // Same seek as EmployeeRepository.findChangedAfter on the (deleted_at, employee_id) index
+    @Query("SELECT t FROM EmployeeTombstone t "
+        + "WHERE (t.deletedAt > :deletedAt OR (t.deletedAt = :deletedAt AND t.employeeId > :employeeId)) "
+        + "AND t.deletedAt < :until ORDER BY t.deletedAt, t.employeeId")
+    List<EmployeeTombstone> findDeletedAfter(Instant deletedAt, long employeeId, Instant until, Limit limit);
+
+    @Query("SELECT MAX(t.deletedAt) FROM EmployeeTombstone t WHERE t.deletedAt < :deletedAt")
+    Optional<Instant> findNewestDeletedAtBefore(Instant deletedAt);
+
+    // Read from the single row, see EmployeeTombstonePurge.ID
+    @Query("SELECT p.purgedUntil FROM EmployeeTombstonePurge p WHERE p.id = 1")
+    Optional<Instant> findPurgedUntil();
+
+    @Modifying
+    @Query("DELETE FROM EmployeeTombstone t WHERE t.deletedAt < :deletedAt")
+    int deleteByDeletedAtBefore(Instant deletedAt);
+
+}
@@ -0,0 +1,15 @@
+package com.project.test.service;
+
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.model.Employee;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface EmployeeAsyncService {
+    CompletableFuture<EmployeeLookup> getEmployeesByIds(List<Long> ids);
+    CompletableFuture<List<Employee>> createEmployees(List<Employee> employees);
+    CompletableFuture<Integer> bulkUpdateEmployees(EmployeeBulkUpdate update);
+    CompletableFuture<Integer> deleteEmployees(List<Long> ids);
+}
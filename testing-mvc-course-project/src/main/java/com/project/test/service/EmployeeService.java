@@ -1,14 +1,37 @@
 package com.project.test.service;
 
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeeChanges;
+import com.project.test.dto.EmployeeFieldsPage;
+import com.project.test.dto.EmployeeImportResult;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.dto.EmployeePage;
+import com.project.test.dto.EmployeePatch;
 import com.project.test.model.Employee;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
     Employee createEmployee(Employee employee);
+    List<Employee> createEmployees(List<Employee> employees);
+    EmployeeImportResult importEmployees(InputStream csv);
     List<Employee> getEmployees();
+    EmployeePage getEmployeesPage(long after, int limit);
+    EmployeeFieldsPage getEmployeesFields(List<String> fields, long after, int limit);
+    void exportEmployees(Consumer<Employee> consumer);
+    void exportEmployeesInParallel(int partitions, OutputStream outputStream) throws IOException;
     Optional<Employee> getEmployeeById(Long id);
+    Optional<Employee> getEmployeeByEmail(String email);
+    EmployeeLookup getEmployeesByIds(List<Long> ids);
+    EmployeeChanges getEmployeeChanges(String since, int limit);
     Employee updateEmployee(Employee employee);
-    void deleteEmployee(Long id);
+    Optional<Employee> patchEmployee(Long id, EmployeePatch patch, Long expectedVersion);
+    int bulkUpdateEmployees(EmployeeBulkUpdate update);
+    boolean deleteEmployee(Long id);
+    int deleteEmployees(List<Long> ids);
 }
@@ -0,0 +1,91 @@
+package com.project.test.service.impl;
+
+import com.project.test.config.EmployeeProperties;
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.model.Employee;
+import com.project.test.service.EmployeeAsyncService;
+import com.project.test.service.EmployeeService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Runs the employee service on two bounded executors, one for reads and one for writes, so a burst
+// of bulk writes queues behind the write threads instead of taking the request threads the reads
+// need. A full queue rejects the call right away, the controller turns that into a 503.
+// The executors publish executor.* metrics (queued, active, completed) tagged name=employee.read or
+// employee.write, and the rejections as employees.bulkhead.rejected. With spring.threads.virtual.enabled
+// the executors run virtual threads, the thread count still bounds the concurrent calls.
+@Timed("employees.service")
+@Service
+public class EmployeeAsyncServiceImpl implements EmployeeAsyncService, DisposableBean {
+
+    private final EmployeeService employeeService;
+    private final ExecutorService readExecutor;
+    private final ExecutorService writeExecutor;
+
+    public EmployeeAsyncServiceImpl(EmployeeService employeeService, EmployeeProperties employeeProperties,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.employeeService = employeeService;
+        this.readExecutor = executor("read", employeeProperties.getBulkhead().getRead(), virtualThreads, meterRegistry);
+        this.writeExecutor = executor("write", employeeProperties.getBulkhead().getWrite(), virtualThreads, meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<EmployeeLookup> getEmployeesByIds(List<Long> ids) {
+        return CompletableFuture.supplyAsync(() -> employeeService.getEmployeesByIds(ids), readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> createEmployees(List<Employee> employees) {
+        return CompletableFuture.supplyAsync(() -> employeeService.createEmployees(employees), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> bulkUpdateEmployees(EmployeeBulkUpdate update) {
+        return CompletableFuture.supplyAsync(() -> employeeService.bulkUpdateEmployees(update), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> deleteEmployees(List<Long> ids) {
+        return CompletableFuture.supplyAsync(() -> employeeService.deleteEmployees(ids), writeExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        readExecutor.shutdown();
+        writeExecutor.shutdown();
+    }
+
+    private static ExecutorService executor(String kind, EmployeeProperties.Pool pool, boolean virtualThreads,
+                                            MeterRegistry meterRegistry) {
+        Counter rejections = Counter.builder("employees.bulkhead.rejected")
+            .tag("kind", kind)
+            .register(meterRegistry);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(),
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(pool.getQueueCapacity()),
+            virtualThreads
+                ? Thread.ofVirtual().name("employee-" + kind + "-", 1).factory()
+                : new CustomizableThreadFactory("employee-" + kind + "-"),
+            (task, rejectingExecutor) -> {
+                rejections.increment();
+                throw new RejectedExecutionException("Too many pending employee " + kind + "s");
+            });
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "employee." + kind);
+    }
+
+}
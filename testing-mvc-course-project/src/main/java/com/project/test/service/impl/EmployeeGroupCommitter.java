@@ -0,0 +1,235 @@
+package com.project.test.service.impl;
+
+import com.project.test.cache.EmailBloomFilter;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.exception.ResourceAlreadyExists;
+import com.project.test.model.Employee;
+import com.project.test.repository.EmployeeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+// Group commit for single creates: concurrent callers are queued and a single worker inserts
+// them together, so one transaction, one JDBC batch and one commit are shared by the whole batch.
+// Each caller still gets its own result, or its own error when only its row is rejected.
+@Slf4j
+@Component
+public class EmployeeGroupCommitter implements SmartLifecycle {
+
+    private record PendingCreate(Employee employee, CompletableFuture<Employee> result) {
+    }
+
+    private final EmployeeRepository employeeRepository;
+    private final EmailBloomFilter emailBloomFilter;
+    private final EmployeeProperties.GroupCommit properties;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingCreate> queue;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public EmployeeGroupCommitter(EmployeeRepository employeeRepository, EmailBloomFilter emailBloomFilter,
+                                  EmployeeProperties employeeProperties,
+                                  PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.emailBloomFilter = emailBloomFilter;
+        this.properties = employeeProperties.getGroupCommit();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // Blocks until the batch holding the employee is committed
+    public Employee create(Employee employee) {
+        try {
+            return submit(employee).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public CompletableFuture<Employee> submit(Employee employee) {
+        CompletableFuture<Employee> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(notRunning());
+            return result;
+        }
+        PendingCreate pending = new PendingCreate(employee, result);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        // Stopped while queueing, the worker may already be gone: whoever takes the create out of
+        // the queue first completes it, here or in the worker
+        if (!running && queue.remove(pending)) {
+            result.completeExceptionally(notRunning());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "employee-group-commit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        // The worker drains what is already queued before exiting
+        running = false;
+        try {
+            worker.join(properties.getShutdownTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Left behind when the worker didn't finish in time
+        List<PendingCreate> leftovers = new ArrayList<>();
+        queue.drainTo(leftovers);
+        leftovers.forEach(pending -> pending.result().completeExceptionally(notRunning()));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        List<PendingCreate> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wait at most maxWait for other creates, a full batch is committed right away
+                long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    queue.drainTo(batch, properties.getMaxBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getMaxBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Group commit of {} employees failed", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingCreate> batch) {
+        // Reject duplicates inside the batch and already known emails before inserting, so one
+        // bad row doesn't roll back the others
+        Set<String> emails = new HashSet<>();
+        List<String> knownEmails = new ArrayList<>();
+        List<PendingCreate> accepted = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            String email = pending.employee().getEmail();
+            if (!emails.add(email)) {
+                pending.result().completeExceptionally(alreadyExists(email, null));
+                continue;
+            }
+            if (emailBloomFilter.mightContain(email)) {
+                knownEmails.add(email);
+            }
+            accepted.add(pending);
+        }
+        Set<String> existingEmails = knownEmails.isEmpty()
+            ? Set.of()
+            : new HashSet<>(employeeRepository.findExistingEmails(knownEmails));
+        accepted.removeIf(pending -> {
+            String email = pending.employee().getEmail();
+            if (existingEmails.contains(email)) {
+                pending.result().completeExceptionally(alreadyExists(email, null));
+                return true;
+            }
+            return false;
+        });
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            List<Employee> savedEmployees = transactionTemplate.execute(status -> {
+                List<Employee> saved = employeeRepository.saveAll(
+                    accepted.stream().map(PendingCreate::employee).toList());
+                employeeRepository.flush();
+                return saved;
+            });
+            for (int i = 0; i < accepted.size(); i++) {
+                complete(accepted.get(i), savedEmployees.get(i));
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Something was inserted concurrently, retry row by row to find out which one
+            accepted.forEach(this::commitAlone);
+        }
+    }
+
+    private void commitAlone(PendingCreate pending) {
+        // The failed batch may already have assigned an id, insert a fresh copy instead
+        Employee employee = pending.employee().toBuilder().id(0L).version(0L).build();
+        try {
+            complete(pending, transactionTemplate.execute(status -> employeeRepository.saveAndFlush(employee)));
+        } catch (DataIntegrityViolationException e) {
+            pending.result().completeExceptionally(EmployeeServiceImpl.isEmailUniqueViolation(e)
+                ? alreadyExists(employee.getEmail(), e)
+                : e);
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private void complete(PendingCreate pending, Employee savedEmployee) {
+        emailBloomFilter.put(savedEmployee.getEmail());
+        pending.result().complete(savedEmployee);
+    }
+
+    private static IllegalStateException notRunning() {
+        return new IllegalStateException("Group commit is not running");
+    }
+
+    private static ResourceAlreadyExists alreadyExists(String email, Throwable cause) {
+        return new ResourceAlreadyExists("Employee with email " + email + " already exists", cause);
+    }
+
+}
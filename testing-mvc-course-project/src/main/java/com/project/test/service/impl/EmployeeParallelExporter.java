@@ -0,0 +1,232 @@
+package com.project.test.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.config.ReadWriteRoutingDataSource;
+import com.project.test.model.Employee;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+// Exports the table as NDJSON by scanning id ranges concurrently, each on its own connection.
+// On PostgreSQL all the scans import the snapshot exported by a coordinator transaction, so the
+// result is as consistent as a single scan. Each partition is spooled to a temporary file and the
+// files are written to the output in id order, the first one while the others are still running.
+// The scans read from the pool of the read-only transactions, and the number of exports running
+// at once is bounded so that together they can't take all of its connections.
+@Component
+public class EmployeeParallelExporter implements DisposableBean {
+
+    private static final String SELECT_PARTITION = "SELECT id, first_name, last_name, email, version, "
+        + "created_at, updated_at FROM employees WHERE id BETWEEN ? AND ? ORDER BY id";
+
+    private final DataSource dataSource;
+    private final ObjectWriter writer;
+    private final EmployeeProperties.Export properties;
+    private final ExecutorService executor;
+    private final Semaphore exports;
+
+    public EmployeeParallelExporter(DataSource dataSource, ObjectMapper objectMapper,
+                                    EmployeeProperties employeeProperties) {
+        this.dataSource = dataSource;
+        this.writer = objectMapper.writerFor(Employee.class);
+        this.properties = employeeProperties.getExport();
+        this.executor = Executors.newFixedThreadPool(properties.getMaxConcurrent() * properties.getMaxPartitions(),
+            new CustomizableThreadFactory("employee-export-"));
+        this.exports = new Semaphore(properties.getMaxConcurrent());
+    }
+
+    // Throws RejectedExecutionException when max-concurrent exports are already running
+    public void export(int requestedPartitions, OutputStream outputStream) throws IOException {
+        if (!exports.tryAcquire()) {
+            throw new RejectedExecutionException("Too many employee exports running, try again later");
+        }
+        DataSource pool = readPool();
+        try (Connection coordinator = pool.getConnection()) {
+            coordinator.setAutoCommit(false);
+            coordinator.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            coordinator.setReadOnly(true);
+            // Without an exported snapshot the scans can't share a consistent view, so there is one
+            String snapshot = isPostgres(coordinator) ? exportSnapshot(coordinator) : null;
+            int partitions = snapshot == null
+                ? 1
+                : Math.min(requestedPartitions, maxPartitions(pool));
+            long[] idRange = idRange(coordinator);
+            if (idRange != null) {
+                exportPartitions(pool, snapshot, idRange[0], idRange[1], Math.max(1, partitions), outputStream);
+            }
+            // The snapshot stays importable as long as the coordinator transaction is open
+            coordinator.commit();
+        } catch (SQLException e) {
+            throw new IOException("Employees export failed", e);
+        } finally {
+            exports.release();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // The replica pool, or the primary one while the replica is out of rotation
+    private DataSource readPool() {
+        return ReadWriteRoutingDataSource.unwrap(dataSource) instanceof ReadWriteRoutingDataSource routing
+            ? routing.getReadDataSource()
+            : dataSource;
+    }
+
+    // Each running export holds its coordinator connection and one per partition
+    private int maxPartitions(DataSource pool) {
+        int maxPartitions = properties.getMaxPartitions();
+        if (pool instanceof HikariDataSource hikari) {
+            maxPartitions = Math.min(maxPartitions,
+                (hikari.getMaximumPoolSize() - 1) / properties.getMaxConcurrent() - 1);
+        }
+        return Math.max(1, maxPartitions);
+    }
+
+    private void exportPartitions(DataSource pool, String snapshot, long minId, long maxId, int partitions,
+                                  OutputStream outputStream) throws IOException {
+        long partitionSize = (maxId - minId) / partitions + 1;
+        List<Future<Path>> files = new ArrayList<>(partitions);
+        for (long from = minId; from <= maxId; from += partitionSize) {
+            long to = Math.min(maxId, from + partitionSize - 1);
+            long partitionFrom = from;
+            files.add(executor.submit(() -> exportPartition(pool, snapshot, partitionFrom, to)));
+        }
+        int written = 0;
+        try {
+            for (Future<Path> file : files) {
+                Path path = file.get();
+                try {
+                    Files.copy(path, outputStream);
+                } finally {
+                    Files.deleteIfExists(path);
+                }
+                outputStream.flush();
+                written++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Employees export interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Employees export failed", e.getCause());
+        } finally {
+            // A failed or aborted export stops the other scans and removes their files
+            files.subList(written, files.size()).forEach(file -> file.cancel(true));
+            files.subList(written, files.size()).forEach(EmployeeParallelExporter::deleteQuietly);
+        }
+    }
+
+    private Path exportPartition(DataSource pool, String snapshot, long fromId, long toId)
+        throws IOException, SQLException {
+        Path path = Files.createTempFile("employees-export-", ".ndjson");
+        try (Connection connection = pool.getConnection();
+             OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setReadOnly(true);
+            if (snapshot != null) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET TRANSACTION SNAPSHOT '" + snapshot.replace("'", "''") + "'");
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(SELECT_PARTITION)) {
+                // A fetch size makes the driver read through a cursor instead of loading the range
+                statement.setFetchSize(properties.getFetchSize());
+                statement.setLong(1, fromId);
+                statement.setLong(2, toId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedIOException("Partition export cancelled");
+                        }
+                        outputStream.write(writer.writeValueAsBytes(toEmployee(resultSet)));
+                        outputStream.write('\n');
+                    }
+                }
+            }
+            connection.commit();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Partition export cancelled");
+            }
+            return path;
+        } catch (IOException | SQLException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    private static Employee toEmployee(ResultSet resultSet) throws SQLException {
+        OffsetDateTime createdAt = resultSet.getObject("created_at", OffsetDateTime.class);
+        OffsetDateTime updatedAt = resultSet.getObject("updated_at", OffsetDateTime.class);
+        return Employee.builder()
+            .id(resultSet.getLong("id"))
+            .firstName(resultSet.getString("first_name"))
+            .lastName(resultSet.getString("last_name"))
+            .email(resultSet.getString("email"))
+            .version(resultSet.getLong("version"))
+            .createdAt(createdAt == null ? null : createdAt.toInstant())
+            .updatedAt(updatedAt == null ? null : updatedAt.toInstant())
+            .build();
+    }
+
+    private static boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private static String exportSnapshot(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT pg_export_snapshot()")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+
+    // Null when the table is empty
+    private static long[] idRange(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT min(id), max(id) FROM employees")) {
+            resultSet.next();
+            long minId = resultSet.getLong(1);
+            return resultSet.wasNull() ? null : new long[] {minId, resultSet.getLong(2)};
+        }
+    }
+
+    private static void deleteQuietly(Future<Path> file) {
+        try {
+            Files.deleteIfExists(file.get());
+        } catch (CancellationException | ExecutionException | IOException e) {
+            // Nothing was left behind, or the partition removed its own file
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
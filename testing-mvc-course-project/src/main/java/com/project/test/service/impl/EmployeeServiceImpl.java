@@ -1,50 +1,659 @@
 package com.project.test.service.impl;
 
+import com.project.test.cache.EmailBloomFilter;
+import com.project.test.cache.SingleFlight;
+import com.project.test.config.CacheConfig;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.config.ReadWriteRoutingDataSource;
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeeChange;
+import com.project.test.dto.EmployeeChanges;
+import com.project.test.dto.EmployeeFieldsPage;
+import com.project.test.dto.EmployeeImportResult;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.dto.EmployeePage;
+import com.project.test.dto.EmployeePatch;
 import com.project.test.exception.ResourceAlreadyExists;
 import com.project.test.model.Employee;
+import com.project.test.model.EmployeeTombstone;
+import com.project.test.repository.EmployeeCopyRepository;
 import com.project.test.repository.EmployeeRepository;
+import com.project.test.repository.EmployeeTombstoneRepository;
 import com.project.test.service.EmployeeService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Timed("employees.service")
 @Service
 @AllArgsConstructor
 public class EmployeeServiceImpl implements EmployeeService {
 
+    private static final String EMAIL_UNIQUE_INDEX = "uk_employees_email";
+
+    private static final Set<String> SELECTABLE_FIELDS = Set.of("id", "firstName", "lastName", "email", "version");
+
+    private final SingleFlight<Long, Optional<Employee>> employeeByIdFlights = new SingleFlight<>();
+
+    private final SingleFlight<String, Optional<Employee>> employeeByEmailFlights = new SingleFlight<>();
+
+    // Start of the imports running in this instance, their rows only become visible on commit
+    private final Queue<Instant> runningImports = new ConcurrentLinkedQueue<>();
+
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EmployeeTombstoneRepository employeeTombstoneRepository;
+
+    @Autowired
+    private EmployeeCopyRepository employeeCopyRepository;
+
+    @Autowired
+    private EmployeeProperties employeeProperties;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    private EmployeeGroupCommitter employeeGroupCommitter;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EmployeeParallelExporter employeeParallelExporter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Missing without replica nor read pool
+    @Autowired
+    private ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
     @Override
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee createEmployee(Employee employee) {
-        Optional<Employee> searchedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (searchedEmployee.isPresent()) {
-            throw new ResourceAlreadyExists("Employee with email " +
-                employee.getEmail() + " already exists");
+        resetIdentity(employee);
+        if (employeeGroupCommitter.isEnabled()) {
+            Employee savedEmployee = employeeGroupCommitter.create(employee);
+            publishUpsert(savedEmployee);
+            return savedEmployee;
+        }
+        // The unique index on email rejects duplicates in the same statement, even between
+        // concurrent creates, so there is no need to look the email up first
+        try {
+            Employee savedEmployee = employeeRepository.saveAndFlush(employee);
+            emailBloomFilter.put(savedEmployee.getEmail());
+            publishUpsert(savedEmployee);
+            return savedEmployee;
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailUniqueViolation(e)) {
+                throw new ResourceAlreadyExists("Employee with email " +
+                    employee.getEmail() + " already exists", e);
+            }
+            throw e;
         }
-        return employeeRepository.save(employee);
     }
 
     @Override
+    @Transactional
+    public List<Employee> createEmployees(List<Employee> employees) {
+        int batchSize = employeeProperties.getBatchSize();
+        Set<String> emails = new HashSet<>();
+        Set<String> duplicatedEmails = new LinkedHashSet<>();
+        for (Employee employee : employees) {
+            if (!emails.add(employee.getEmail())) {
+                duplicatedEmails.add(employee.getEmail());
+            }
+        }
+        // Only the emails the Bloom filter may have seen need to be checked, with one
+        // IN (...) query per batch instead of one lookup per employee
+        List<String> uniqueEmails = emails.stream()
+            .filter(emailBloomFilter::mightContain)
+            .toList();
+        for (int i = 0; i < uniqueEmails.size(); i += batchSize) {
+            duplicatedEmails.addAll(employeeRepository.findExistingEmails(
+                uniqueEmails.subList(i, Math.min(i + batchSize, uniqueEmails.size()))));
+        }
+        if (!duplicatedEmails.isEmpty()) {
+            throw new ResourceAlreadyExists("Employees with emails " +
+                duplicatedEmails + " already exist");
+        }
+        employees.forEach(EmployeeServiceImpl::resetIdentity);
+        List<Employee> savedEmployees = new ArrayList<>(employees.size());
+        try {
+            for (int i = 0; i < employees.size(); i += batchSize) {
+                savedEmployees.addAll(employeeRepository.saveAll(
+                    employees.subList(i, Math.min(i + batchSize, employees.size()))));
+                // Send the batch and drop it from the persistence context to keep memory flat
+                employeeRepository.flush();
+                entityManager.clear();
+            }
+            boolean resync = overflowsStream(savedEmployees.size());
+            savedEmployees.forEach(employee -> {
+                emailBloomFilter.put(employee.getEmail());
+                if (!resync) {
+                    publishUpsert(employee);
+                }
+            });
+            if (resync) {
+                publishResync();
+            }
+        } catch (DataIntegrityViolationException e) {
+            // An email inserted concurrently after the IN (...) check
+            if (isEmailUniqueViolation(e)) {
+                throw new ResourceAlreadyExists("Some of the employees emails already exist", e);
+            }
+            throw e;
+        }
+        return savedEmployees;
+    }
+
+    // The file is streamed to the database with COPY and merged with one INSERT ... SELECT,
+    // so neither the file nor the rows are ever held in memory
+    @Override
+    @Transactional
+    public EmployeeImportResult importEmployees(InputStream csv) {
+        long start = System.nanoTime();
+        Instant startedAt = Instant.now();
+        runningImports.add(startedAt);
+        EmployeeCopyRepository.CopyResult result;
+        try {
+            result = employeeCopyRepository.copyCsv(csv);
+        } finally {
+            afterTransaction(() -> runningImports.remove(startedAt));
+        }
+        long durationMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        rebuildEmailFilterAfterCommit();
+        if (result.inserted() > 0) {
+            publishResync();
+        }
+        return EmployeeImportResult.builder()
+            .inserted(result.inserted())
+            .skipped(result.copied() - result.inserted())
+            .durationMillis(durationMillis)
+            .rowsPerSecond(result.copied() * 1000 / durationMillis)
+            .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Employee> getEmployees() {
-        return employeeRepository.findAll();
+        // The unpaged listing is capped so a single request can't load the whole table
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(0L,
+            Limit.of(employeeProperties.getMaxUnpagedSize()));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesPage(long after, int limit) {
+        int pageSize = limit > 0
+            ? Math.min(limit, employeeProperties.getMaxPageSize())
+            : employeeProperties.getDefaultPageSize();
+        // Fetch one extra row to know whether another page exists without a count query
+        List<Employee> employees = employeeRepository.findByIdGreaterThanOrderByIdAsc(after,
+            Limit.of(pageSize + 1));
+        Long nextCursor = null;
+        if (employees.size() > pageSize) {
+            employees = employees.subList(0, pageSize);
+            nextCursor = employees.get(pageSize - 1).getId();
+        }
+        return EmployeePage.builder()
+            .employees(employees)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeFieldsPage getEmployeesFields(List<String> fields, long after, int limit) {
+        List<String> requestedFields = fields.stream().distinct().toList();
+        if (requestedFields.isEmpty() || !SELECTABLE_FIELDS.containsAll(requestedFields)) {
+            throw new IllegalArgumentException("Fields must be among " + SELECTABLE_FIELDS);
+        }
+        // The id is selected in any case, it is the cursor of the next page, e.g. for ?fields=email
+        boolean idRequested = requestedFields.contains("id");
+        List<String> selectedFields = idRequested
+            ? requestedFields
+            : Stream.concat(Stream.of("id"), requestedFields.stream()).toList();
+        int maxSize = employeeProperties.getMaxUnpagedSize();
+        int pageSize = limit > 0 ? Math.min(limit, maxSize) : maxSize;
+        // Fetch one extra row to know whether another page exists without a count query
+        List<Map<String, Object>> rows = employeeRepository.findFieldsByIdGreaterThan(selectedFields, after,
+            pageSize + 1);
+        Long nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextCursor = (Long) rows.get(pageSize - 1).get("id");
+        }
+        if (!idRequested) {
+            rows = rows.stream()
+                .map(row -> {
+                    Map<String, Object> requestedRow = new LinkedHashMap<>(row);
+                    requestedRow.remove("id");
+                    return requestedRow;
+                })
+                .toList();
+        }
+        return EmployeeFieldsPage.builder()
+            .employees(rows)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAll(employeeProperties.getExport().getFetchSize())) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                // Detach each written row so the persistence context doesn't grow with the table
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    // Not transactional, every partition is scanned in its own transaction on its own connection
+    @Override
+    public void exportEmployeesInParallel(int partitions, OutputStream outputStream) throws IOException {
+        employeeParallelExporter.export(partitions, outputStream);
+    }
+
+    // Concurrent misses for the same id share one query. Not transactional on purpose: the
+    // callers waiting for the shared query must not each hold a connection meanwhile, the
+    // repository runs the query in its own read-only transaction. That one goes to the replica
+    // when there is one, which may be behind the last write, so its result fills neither this
+    // cache nor the second-level and query caches.
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id",
+        unless = "#result == null || #root.target.isReadingFromReplica()")
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        return employeeByIdFlights.execute(id, () -> isReadingFromReplica()
+            ? employeeRepository.findUncachedById(id)
+            : employeeRepository.findById(id));
     }
 
     @Override
+    public Optional<Employee> getEmployeeByEmail(String email) {
+        return employeeByEmailFlights.execute(email, () -> isReadingFromReplica()
+            ? employeeRepository.findUncachedByEmail(email)
+            : employeeRepository.findByEmail(email));
+    }
+
+    // Public for the cache conditions
+    public boolean isReadingFromReplica() {
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+        return routing != null && routing.isReadingFromReplica();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EmployeeLookup getEmployeesByIds(List<Long> ids) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Employee> employeesById = new HashMap<>();
+        int batchSize = employeeProperties.getBatchSize();
+        for (int i = 0; i < uniqueIds.size(); i += batchSize) {
+            employeeRepository.findAllById(uniqueIds.subList(i, Math.min(i + batchSize, uniqueIds.size())))
+                .forEach(employee -> employeesById.put(employee.getId(), employee));
+        }
+        List<Employee> employees = new ArrayList<>(employeesById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            Employee employee = employeesById.get(id);
+            if (employee != null) {
+                employees.add(employee);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return EmployeeLookup.builder()
+            .employees(employees)
+            .missingIds(missingIds)
+            .build();
+    }
+
+    // Reads the primary on purpose: a lagging replica could miss rows older than the settle
+    // time and the cursor would then move past them for good
+    @Override
+    @Transactional
+    public EmployeeChanges getEmployeeChanges(String since, int limit) {
+        int pageSize = limit > 0
+            ? Math.min(limit, employeeProperties.getMaxPageSize())
+            : employeeProperties.getDefaultPageSize();
+        ChangeCursor cursor = since == null ? ChangeCursor.START : ChangeCursor.decode(since);
+        // Only a cursor from before the newest purged tombstone may have missed a deletion, the age of
+        // the cursor alone doesn't matter, e.g. on a table that hasn't changed for longer than the retention
+        if (since != null) {
+            employeeTombstoneRepository.findPurgedUntil()
+                .filter(purgedUntil -> !cursor.changedAt().isAfter(purgedUntil))
+                .ifPresent(purgedUntil -> {
+                    throw new IllegalArgumentException("Cursor is older than the purged tombstones, "
+                        + "resynchronize from the full listing");
+                });
+        }
+        Instant until = Instant.now().minus(employeeProperties.getChanges().getSettleTime());
+        // A running import may still commit rows stamped before until
+        for (Instant importStartedAt : runningImports) {
+            if (importStartedAt.isBefore(until)) {
+                until = importStartedAt;
+            }
+        }
+        // Both sources are read in cursor order and merged, one extra row tells whether more changes exist
+        List<EmployeeChange> changes = new ArrayList<>();
+        employeeRepository.findChangedAfter(cursor.changedAt(), cursor.id(), until, Limit.of(pageSize + 1))
+            .forEach(employee -> changes.add(EmployeeChange.builder()
+                .type(EmployeeChange.Type.UPSERT)
+                .id(employee.getId())
+                .changedAt(employee.getUpdatedAt())
+                .employee(employee)
+                .build()));
+        employeeTombstoneRepository.findDeletedAfter(cursor.changedAt(), cursor.id(), until, Limit.of(pageSize + 1))
+            .forEach(tombstone -> changes.add(EmployeeChange.builder()
+                .type(EmployeeChange.Type.DELETE)
+                .id(tombstone.getEmployeeId())
+                .changedAt(tombstone.getDeletedAt())
+                .build()));
+        changes.sort(Comparator.comparing(EmployeeChange::getChangedAt).thenComparingLong(EmployeeChange::getId));
+        boolean hasMore = changes.size() > pageSize;
+        List<EmployeeChange> page = hasMore ? changes.subList(0, pageSize) : changes;
+        // Without more changes everything before until has been read, the cursor moves up to it so that
+        // it stays recent on a quiet table
+        ChangeCursor nextCursor;
+        if (hasMore) {
+            nextCursor = new ChangeCursor(page.get(page.size() - 1).getChangedAt(), page.get(page.size() - 1).getId());
+        } else if (cursor.changedAt().isBefore(until)) {
+            nextCursor = new ChangeCursor(until, 0L);
+        } else {
+            nextCursor = cursor;
+        }
+        return EmployeeChanges.builder()
+            .changes(new ArrayList<>(page))
+            .nextCursor(nextCursor.encode())
+            .hasMore(hasMore)
+            .build();
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee updateEmployee(Employee employee) {
-        return employeeRepository.save(employee);
+        // Flushed here so that a taken email fails in this call rather than at commit
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailUniqueViolation(e)) {
+                throw new ResourceAlreadyExists("Employee with email " +
+                    employee.getEmail() + " already exists", e);
+            }
+            throw e;
+        }
+        emailBloomFilter.put(savedEmployee.getEmail());
+        publishUpsert(savedEmployee);
+        return savedEmployee;
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id", unless = "#result == null")
+    public Optional<Employee> patchEmployee(Long id, EmployeePatch patch, Long expectedVersion) {
+        return employeeRepository.findById(id).map(employee -> {
+            // The UPDATE is also guarded by the version column, this check covers the no-op patches
+            if (expectedVersion != null && employee.getVersion() != expectedVersion) {
+                throw new OptimisticLockingFailureException("Employee with id " + id +
+                    " has been modified since version " + expectedVersion);
+            }
+            // Setting a field to its current value doesn't make it dirty, so the flush sends an
+            // UPDATE of the changed columns only, or nothing at all when the patch is a no-op
+            long version = employee.getVersion();
+            Optional.ofNullable(patch.getFirstName()).ifPresent(employee::setFirstName);
+            Optional.ofNullable(patch.getLastName()).ifPresent(employee::setLastName);
+            Optional.ofNullable(patch.getEmail()).ifPresent(employee::setEmail);
+            try {
+                employeeRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                if (isEmailUniqueViolation(e)) {
+                    throw new ResourceAlreadyExists("Employee with email " +
+                        employee.getEmail() + " already exists", e);
+                }
+                throw e;
+            }
+            emailBloomFilter.put(employee.getEmail());
+            if (employee.getVersion() != version) {
+                publishUpsert(employee);
+            }
+            return employee;
+        });
+    }
+
+    // One UPDATE per id range, each committed on its own so that row locks are only held for
+    // a chunk. The cache is cleared before, so nothing stale is served while the update runs,
+    // and after, for the entries loaded meanwhile.
+    @Override
+    @Caching(evict = {
+        @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true, beforeInvocation = true),
+        @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    })
+    public int bulkUpdateEmployees(EmployeeBulkUpdate update) {
+        if (update.getEmailDomain() == null && update.getLastName() == null) {
+            throw new IllegalArgumentException("A bulk update needs an emailDomain or lastName filter");
+        }
+        if (update.getNewEmailDomain() == null && update.getNewLastName() == null) {
+            throw new IllegalArgumentException("A bulk update needs a newEmailDomain or newLastName");
+        }
+        if (update.getNewEmailDomain() != null && update.getNewEmailDomain().contains("@")) {
+            throw new IllegalArgumentException("newEmailDomain must not contain an @");
+        }
+        Optional<Long> minId = employeeRepository.findMinId();
+        Optional<Long> maxId = employeeRepository.findMaxId();
+        if (minId.isEmpty() || maxId.isEmpty()) {
+            return 0;
+        }
+        long chunkSize = employeeProperties.getBulkUpdateChunkSize();
+        int updated = 0;
+        for (long from = minId.get(); from <= maxId.get(); from += chunkSize) {
+            long fromId = from;
+            long toId = from + chunkSize - 1;
+            try {
+                // Stamped when the chunk runs, a time taken before the loop could be older than
+                // the settle time of the change feed once the chunk commits
+                updated += transactionTemplate.execute(status ->
+                    employeeRepository.bulkUpdate(update, fromId, toId, Instant.now()));
+            } catch (DataIntegrityViolationException e) {
+                if (isEmailUniqueViolation(e)) {
+                    throw new ResourceAlreadyExists("Updating employees " + fromId + " to " + toId +
+                        " would duplicate an email, " + updated + " employees were already updated", e);
+                }
+                throw e;
+            }
+        }
+        if (update.getNewEmailDomain() != null) {
+            rebuildEmailFilterAfterCommit();
+        }
+        if (updated > 0) {
+            publishResync();
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public boolean deleteEmployee(Long id) {
+        // The DELETE locks the row, so only one of two concurrent deletes leaves a tombstone
+        if (employeeRepository.deleteEmployeeById(id) == 0) {
+            return false;
+        }
+        EmployeeTombstone tombstone = new EmployeeTombstone(id, Instant.now());
+        entityManager.persist(tombstone);
+        publishDelete(tombstone);
+        return true;
     }
 
     @Override
-    public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public int deleteEmployees(List<Long> ids) {
+        int batchSize = employeeProperties.getBatchSize();
+        Instant deletedAt = Instant.now();
+        int deleted = 0;
+        List<EmployeeTombstone> tombstones = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<Long> existingIds = employeeRepository.lockExistingIds(ids.subList(i, Math.min(i + batchSize, ids.size())));
+            if (existingIds.isEmpty()) {
+                continue;
+            }
+            deleted += employeeRepository.deleteEmployeesByIds(existingIds);
+            existingIds.forEach(id -> {
+                EmployeeTombstone tombstone = new EmployeeTombstone(id, deletedAt);
+                entityManager.persist(tombstone);
+                tombstones.add(tombstone);
+            });
+        }
+        if (overflowsStream(tombstones.size())) {
+            publishResync();
+        } else {
+            tombstones.forEach(this::publishDelete);
+        }
+        return deleted;
+    }
+
+    // For changes that write emails without going through the entities, which the Bloom filter
+    // doesn't know about until it is rebuilt
+    private void rebuildEmailFilterAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    CompletableFuture.runAsync(emailBloomFilter::rebuild);
+                }
+            });
+        } else {
+            CompletableFuture.runAsync(emailBloomFilter::rebuild);
+        }
+    }
+
+    // Runs the action once the surrounding transaction commits or rolls back, right away without one
+    private static void afterTransaction(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Listeners are called once the surrounding transaction commits, see EmployeeEventBroadcaster
+    private void publishUpsert(Employee employee) {
+        eventPublisher.publishEvent(EmployeeChange.builder()
+            .type(EmployeeChange.Type.UPSERT)
+            .id(employee.getId())
+            .changedAt(employee.getUpdatedAt())
+            .employee(employee)
+            .build());
+    }
+
+    // One event per row would overflow the buffer of every streaming client and disconnect them all
+    private boolean overflowsStream(int changes) {
+        return changes > employeeProperties.getStream().getBufferSize();
+    }
+
+    private void publishResync() {
+        eventPublisher.publishEvent(EmployeeChange.builder()
+            .type(EmployeeChange.Type.RESYNC)
+            .changedAt(Instant.now())
+            .build());
+    }
+
+    private void publishDelete(EmployeeTombstone tombstone) {
+        eventPublisher.publishEvent(EmployeeChange.builder()
+            .type(EmployeeChange.Type.DELETE)
+            .id(tombstone.getEmployeeId())
+            .changedAt(tombstone.getDeletedAt())
+            .build());
+    }
+
+    // Only a duplicate email is the client's fault, e.g. a primary key collision is not
+    static boolean isEmailUniqueViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+            && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE
+            && violation.getConstraintName() != null
+            && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(EMAIL_UNIQUE_INDEX);
+    }
+
+    // Ids and versions sent with a new employee are ignored, saving them would merge the employee
+    // into the existing row with that id instead of inserting it
+    private static void resetIdentity(Employee employee) {
+        employee.setId(0L);
+        employee.setVersion(0L);
+    }
+
+    // Position in the change feed, encoded as an opaque string for the clients
+    private record ChangeCursor(Instant changedAt, long id) {
+
+        static final ChangeCursor START = new ChangeCursor(Instant.EPOCH, 0L);
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((changedAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ChangeCursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new ChangeCursor(Instant.parse(parts[0]), Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid change cursor " + cursor);
+            }
+        }
+
     }
 }
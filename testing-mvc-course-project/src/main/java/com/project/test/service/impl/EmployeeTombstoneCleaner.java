@@ -0,0 +1,48 @@
+package com.project.test.service.impl;
+
+import com.project.test.config.EmployeeProperties;
+import com.project.test.model.EmployeeTombstonePurge;
+import com.project.test.repository.EmployeeTombstoneRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+// Keeps the tombstones table bounded, the change feed then rejects the cursors from before the
+// newest purged tombstone and those clients must resync
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeTombstoneCleaner {
+
+    private final EmployeeTombstoneRepository employeeTombstoneRepository;
+    private final EmployeeProperties employeeProperties;
+    private final EntityManager entityManager;
+
+    @Scheduled(fixedDelayString = "${employees.changes.tombstone-purge-interval:PT1H}")
+    @Transactional
+    public void purge() {
+        Instant expiredBefore = Instant.now().minus(employeeProperties.getChanges().getTombstoneRetention());
+        Optional<Instant> newestExpired = employeeTombstoneRepository.findNewestDeletedAtBefore(expiredBefore);
+        if (newestExpired.isEmpty()) {
+            return;
+        }
+        // Moved in the same transaction as the purge, the row lock orders the instances purging together
+        EmployeeTombstonePurge purge = entityManager.find(EmployeeTombstonePurge.class, EmployeeTombstonePurge.ID,
+            LockModeType.PESSIMISTIC_WRITE);
+        if (purge == null) {
+            entityManager.persist(new EmployeeTombstonePurge(EmployeeTombstonePurge.ID, newestExpired.get()));
+        } else if (newestExpired.get().isAfter(purge.getPurgedUntil())) {
+            purge.setPurgedUntil(newestExpired.get());
+        }
+        int purged = employeeTombstoneRepository.deleteByDeletedAtBefore(expiredBefore);
+        log.info("Purged {} employee tombstones older than {}", purged, expiredBefore);
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.project.test.sql;
+
+import com.project.test.config.EmployeeProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Observes the statements sent through the application datasource in place of spring.jpa.show-sql,
+// which prints every one of them on the request thread. Each execution is timed per query shape as
+// employees.sql, with literals and parameter lists folded so that IN lists of any size share a shape.
+// A sample of the statements is logged without bind values, the ones slower than the threshold always
+// are, with their bind values and the application method that ran them. The logging is done by a
+// single background thread, entries that don't fit in its queue are dropped and counted.
+@Slf4j
+public class SqlObserver implements QueryExecutionListener, DisposableBean {
+
+    private static final String START = SqlObserver.class.getName() + ".start";
+    private static final String APPLICATION_PACKAGE = "com.project.test.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final EmployeeProperties.Sql properties;
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+    // Timers by raw SQL skip the folding for the statements already seen, both maps are bounded
+    private final Map<String, Timer> timersBySql = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timersByShape = new ConcurrentHashMap<>();
+    private final Timer otherTimer;
+    private final Counter droppedLogs;
+    private final ThreadPoolExecutor logger;
+
+    public SqlObserver(EmployeeProperties.Sql properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.otherTimer = timer("other");
+        this.droppedLogs = meterRegistry.counter("employees.sql.logs.dropped");
+        this.logger = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getLogQueueCapacity()),
+            new CustomizableThreadFactory("employee-sql-log-"),
+            (task, executor) -> droppedLogs.increment());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START, Long.class);
+        if (start == null || queryInfoList.isEmpty()) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        timerFor(queryInfoList).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (elapsedNanos >= slowThresholdNanos) {
+            // The call site and the bind values can't be read once the request thread moved on
+            String entry = "Slow query from " + callSite() + " "
+                + logEntryCreator.getLogEntry(execInfo, queryInfoList, true, true, false);
+            logger.execute(() -> log.warn(entry));
+        } else if (properties.getSampleRate() > 0
+            && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate()) {
+            String queries = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+            long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+            logger.execute(() -> log.info("Query took {}us: {}", elapsedMicros, queries));
+        }
+    }
+
+    // The pending entries are still logged
+    @Override
+    public void destroy() throws InterruptedException {
+        logger.shutdown();
+        logger.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("?...");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private Timer timerFor(List<QueryInfo> queryInfoList) {
+        // A batch of different statements is timed as a whole
+        String sql = queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery() : "batch";
+        Timer timer = timersBySql.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+        String shape = shape(sql);
+        timer = timersByShape.get(shape);
+        if (timer == null) {
+            // Past max-shapes, e.g. with SQL built from user input, the new shapes are timed together
+            timer = timersByShape.size() < properties.getMaxShapes()
+                ? timersByShape.computeIfAbsent(shape, this::timer)
+                : otherTimer;
+        }
+        if (timersBySql.size() < properties.getMaxShapes() * 4) {
+            timersBySql.put(sql, timer);
+        }
+        return timer;
+    }
+
+    private Timer timer(String shape) {
+        return Timer.builder("employees.sql")
+            .tag("shape", shape)
+            .register(meterRegistry);
+    }
+
+    // First application frame below the datasource, e.g. the service method that ran the query
+    private static String callSite() {
+        return STACK_WALKER.walk(frames -> frames
+            .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                && !frame.getClassName().equals(SqlObserver.class.getName())
+                && !frame.getClassName().contains("$$"))
+            .findFirst()
+            .map(frame -> frame.toStackTraceElement().toString())
+            .orElse("unknown"));
+    }
+
+}
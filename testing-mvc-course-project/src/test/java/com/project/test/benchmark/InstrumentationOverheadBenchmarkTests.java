@@ -0,0 +1,154 @@
+package com.project.test.benchmark;
+
+import com.project.test.TestingCourseApplication;
+import com.project.test.model.Employee;
+import com.project.test.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.Filter;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.ServletContextInitializerBeans;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Measures what the instrumentation adds to an email lookup going through the filters, the controller,
+// the service and a JPA query: the http.server.requests observation, the @Timed timers, the Spring Data
+// repository metrics, the Hibernate statistics, the SQL observer and the percentile histograms. Two
+// contexts that only differ by the instrumentation are measured in alternate rounds against the same
+// database. The caches and the concurrency limits are off in both so that every request reaches the
+// database. The percentage depends on how fast the database answers, the bound is on the time added
+// to each request, which has to stay under a tenth of a millisecond request. Run it against the real
+// database, e.g.
+// mvn test -Dtest=InstrumentationOverheadBenchmarkTests -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class InstrumentationOverheadBenchmarkTests {
+
+    private static final int EMPLOYEES = 100;
+    private static final int REQUESTS_PER_ROUND = 2_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 20;
+    private static final Duration MAX_OVERHEAD = Duration.ofMillis(1).dividedBy(10);
+
+    private static final String[] PROPERTIES = {
+        "server.port=0",
+        "employees.concurrency-limit.enabled=false",
+        "spring.cache.type=none",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"};
+    private static final String[] UNINSTRUMENTED_PROPERTIES = {
+        "management.observations.enable.http.server.requests=false",
+        "management.observations.annotations.enabled=false",
+        "management.metrics.data.repository.autotime.enabled=false",
+        "management.metrics.enable.all=false",
+        "spring.jpa.properties.hibernate.generate_statistics=false",
+        "employees.sql.enabled=false"};
+
+    @Test
+    public void givenInstrumentedAndPlainContexts_whenGettingEmployeesByEmail_thenReportOverhead() throws Exception {
+        // Given
+        try (ConfigurableApplicationContext instrumented = start();
+             ConfigurableApplicationContext plain = start(UNINSTRUMENTED_PROPERTIES)) {
+            EmployeeRepository employeeRepository = instrumented.getBean(EmployeeRepository.class);
+            List<Employee> employees = employeeRepository.saveAll(IntStream.range(0, EMPLOYEES)
+                .mapToObj(i -> Employee.builder()
+                    .firstName("Bench")
+                    .lastName("Mark")
+                    .email("overhead-" + i + "@example.com")
+                    .build())
+                .toList());
+            try {
+                MockMvc instrumentedMockMvc = mockMvc(instrumented);
+                MockMvc plainMockMvc = mockMvc(plain);
+
+                // When
+                long[] instrumentedNanos = new long[ROUNDS];
+                long[] plainNanos = new long[ROUNDS];
+                for (int round = -WARMUP_ROUNDS; round < ROUNDS; round++) {
+                    // Alternates which context goes first, e.g. right after a GC of the other one
+                    boolean instrumentedFirst = round % 2 == 0;
+                    long first = timeRequests(instrumentedFirst ? instrumentedMockMvc : plainMockMvc, employees);
+                    long second = timeRequests(instrumentedFirst ? plainMockMvc : instrumentedMockMvc, employees);
+                    if (round >= 0) {
+                        instrumentedNanos[round] = instrumentedFirst ? first : second;
+                        plainNanos[round] = instrumentedFirst ? second : first;
+                    }
+                }
+
+                // Then
+                double instrumentedMicros = median(instrumentedNanos) / REQUESTS_PER_ROUND / 1e3;
+                double plainMicros = median(plainNanos) / REQUESTS_PER_ROUND / 1e3;
+                double overheadMicros = instrumentedMicros - plainMicros;
+                Timer requests = instrumented.getBean(MeterRegistry.class).get("http.server.requests").timer();
+                System.out.printf("plain %.1f us/request, instrumented %.1f us/request, overhead %.1f us/request "
+                        + "(%.1f%%), %d http.server.requests buckets%n",
+                    plainMicros, instrumentedMicros, overheadMicros, overheadMicros / plainMicros * 100,
+                    requests.takeSnapshot().histogramCounts().length);
+                assertThat(requests.count()).isEqualTo((long) (WARMUP_ROUNDS + ROUNDS) * REQUESTS_PER_ROUND);
+                assertThat(statisticsEnabled(instrumented)).isTrue();
+                assertThat(plain.getBean(MeterRegistry.class).find("http.server.requests").timer()).isNull();
+                assertThat(statisticsEnabled(plain)).isFalse();
+                assertThat(overheadMicros).isLessThan(MAX_OVERHEAD.toNanos() / 1e3);
+            } finally {
+                employeeRepository.deleteAllInBatch(employees);
+            }
+        }
+    }
+
+    // Passed as arguments, the default properties of the builder can't override application.properties
+    private static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(TestingCourseApplication.class)
+            .run(Stream.concat(Arrays.stream(PROPERTIES), Arrays.stream(properties))
+                .map(property -> "--" + property)
+                .toArray(String[]::new));
+    }
+
+    // Runs the filters the embedded server would, e.g. the one observing http.server.requests
+    private static MockMvc mockMvc(ConfigurableApplicationContext context) {
+        Filter[] filters = new ServletContextInitializerBeans(context.getBeanFactory()).stream()
+            .filter(FilterRegistrationBean.class::isInstance)
+            .map(initializer -> ((FilterRegistrationBean<?>) initializer).getFilter())
+            .toArray(Filter[]::new);
+        return MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+            .addFilters(filters)
+            .build();
+    }
+
+    private static long timeRequests(MockMvc mockMvc, List<Employee> employees) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS_PER_ROUND; i++) {
+            mockMvc.perform(get("/api/v1/employees").param("email", employees.get(i % employees.size()).getEmail()))
+                .andExpect(status().isOk());
+        }
+        return System.nanoTime() - start;
+    }
+
+    // The median round leaves out the ones slowed down by a GC or a JIT compilation
+    private static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static boolean statisticsEnabled(ConfigurableApplicationContext context) {
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+            .getStatistics().isStatisticsEnabled();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.project.test.benchmark;
+
+import com.project.test.TestingCourseApplication;
+import com.project.test.model.Employee;
+import com.project.test.repository.EmployeeRepository;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compares Tomcat on platform threads with the virtual thread mode by sending email lookups from
+// 1k and 10k concurrent clients. Run it against the real database, the concurrency limits are off
+// so that only the thread model differs, e.g.
+// ulimit -n 65536 && mvn test -Dtest=ThreadModeBenchmarkTests -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ThreadModeBenchmarkTests {
+
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    @ParameterizedTest(name = "virtual threads {0}, {1} clients")
+    @CsvSource({"false, 1000", "true, 1000", "false, 10000", "true, 10000"})
+    public void givenConcurrentClients_whenGettingEmployeesByEmail_thenReportThroughputAndLatency(
+        boolean virtualThreads, int clients) throws Exception {
+        // Given
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                 new SpringApplicationBuilder(TestingCourseApplication.class)
+                     .properties(
+                         "server.port=0",
+                         "spring.threads.virtual.enabled=" + virtualThreads,
+                         "server.tomcat.max-connections=20000",
+                         "server.tomcat.accept-count=10000",
+                         "employees.concurrency-limit.enabled=false",
+                         "spring.jpa.show-sql=false")
+                     .run()) {
+            EmployeeRepository employeeRepository = context.getBean(EmployeeRepository.class);
+            List<Employee> employees = employeeRepository.saveAll(IntStream.range(0, clients)
+                .mapToObj(i -> Employee.builder()
+                    .firstName("Bench")
+                    .lastName("Mark")
+                    .email("benchmark-" + i + "@example.com")
+                    .build())
+                .toList());
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort() + "/api/v1/employees?email=";
+            try {
+                // When
+                Result result = run(baseUrl, clients);
+                // Then
+                System.out.printf("%s threads, %d clients: %.0f req/s, p50 %.1f ms, p99 %.1f ms, "
+                        + "%d failed, %d peak JVM threads%n",
+                    virtualThreads ? "virtual" : "platform", clients, result.throughput(),
+                    result.percentile(0.50), result.percentile(0.99), result.failed(),
+                    ManagementFactory.getThreadMXBean().getPeakThreadCount());
+                assertThat(result.latencies()).isNotEmpty();
+            } finally {
+                for (int i = 0; i < employees.size(); i += 1000) {
+                    employeeRepository.deleteAllInBatch(employees.subList(i, Math.min(employees.size(), i + 1000)));
+                }
+            }
+        }
+    }
+
+    private static Result run(String baseUrl, int clients) throws InterruptedException {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        long[][] latencies = new long[clients][];
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long startNanos;
+        // The clients are virtual threads in both modes, so only the server side threads differ.
+        // Closing the executor waits for all of them, before the client is closed.
+        try (HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                int clientId = client;
+                executor.execute(() -> {
+                    List<Long> clientLatencies = new ArrayList<>(REQUESTS_PER_CLIENT);
+                    HttpRequest request = HttpRequest.newBuilder(
+                            URI.create(baseUrl + "benchmark-" + clientId + "@example.com"))
+                        .timeout(Duration.ofSeconds(60))
+                        .build();
+                    try {
+                        start.await();
+                        for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                            long requestStart = System.nanoTime();
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                clientLatencies.add(System.nanoTime() - requestStart);
+                            } else {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[clientId] = clientLatencies.stream().mapToLong(Long::longValue).toArray();
+                });
+            }
+            startNanos = System.nanoTime();
+            start.countDown();
+        }
+        long[] allLatencies = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(allLatencies, failed.get(), System.nanoTime() - startNanos);
+    }
+
+    private record Result(long[] latencies, int failed, long elapsedNanos) {
+
+        double throughput() {
+            return latencies.length / (elapsedNanos / 1e9);
+        }
+
+        double percentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            return latencies[(int) Math.min(latencies.length - 1, latencies.length * percentile)] / 1e6;
+        }
+
+    }
+
+}
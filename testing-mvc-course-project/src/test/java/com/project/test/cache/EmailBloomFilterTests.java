@@ -0,0 +1,53 @@
+package com.project.test.cache;
+
+import com.project.test.config.EmployeeProperties;
+import com.project.test.repository.EmployeeRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailBloomFilterTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
+    @InjectMocks
+    private EmailBloomFilter emailBloomFilter;
+
+    // Junit test for checking emails before the filter is built
+    @DisplayName("Junit test for checking email before building the filter")
+    @Test
+    public void givenFilterNotBuilt_whenCheckingEmail_thenReturnMightContain() {
+        // When
+        boolean mightContain = emailBloomFilter.mightContain("mahmed@gmail.com");
+        // Then
+        assertThat(mightContain).isTrue();
+    }
+
+    // Junit test for checking emails after the filter is built
+    @DisplayName("Junit test for checking emails after building the filter")
+    @Test
+    public void givenEmailsInDB_whenRebuildingFilter_thenOnlyKnownEmailsMightBeContained() {
+        // Given
+        given(employeeRepository.streamAllEmails()).willReturn(Stream.of("mahmed@gmail.com"));
+        // When
+        emailBloomFilter.rebuild();
+        emailBloomFilter.put("asamir@gmail.com");
+        // Then
+        assertThat(emailBloomFilter.mightContain("mahmed@gmail.com")).isTrue();
+        assertThat(emailBloomFilter.mightContain("asamir@gmail.com")).isTrue();
+        assertThat(emailBloomFilter.mightContain("unknown@gmail.com")).isFalse();
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.project.test.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTests {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    // Junit test for concurrent calls with the same key
+    @DisplayName("Junit test for sharing one load between concurrent calls")
+    @Test
+    public void givenLoadInFlight_whenCallingWithSameKey_thenShareItsResult() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "Mohamed";
+        }), executor);
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        // When
+        List<CompletableFuture<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            followers.add(CompletableFuture.supplyAsync(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return "Ahmed";
+            }), executor));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        // Then
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Mohamed");
+        for (CompletableFuture<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("Mohamed");
+        }
+        assertThat(loads).hasValue(1);
+        executor.shutdown();
+    }
+
+    // Junit test for calls made after the load completed
+    @DisplayName("Junit test for loading again once the previous load completed")
+    @Test
+    public void givenCompletedLoad_whenCallingWithSameKey_thenLoadAgain() {
+        // Given
+        singleFlight.execute(1L, () -> "Mohamed");
+        // When
+        String value = singleFlight.execute(1L, () -> "Ahmed");
+        // Then
+        assertThat(value).isEqualTo("Ahmed");
+    }
+
+    // Junit test for a failing load
+    @DisplayName("Junit test for rethrowing the exception of the load")
+    @Test
+    public void givenFailingLoad_whenCalling_thenRethrowItsException() {
+        // When
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("Database is down");
+        }));
+        // Then
+        assertThat(singleFlight.execute(1L, () -> "Mohamed")).isEqualTo("Mohamed");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.project.test.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+// Uses two embedded databases that only differ by the row of their node table
+public class ReadWriteRoutingDataSourceTests {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private EmployeeProperties.Replica replicaProperties;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        primary = embeddedDatabase("primary");
+        replica = embeddedDatabase("replica");
+        replicaProperties = new EmployeeProperties.Replica();
+        replicaProperties.setLagQuery("SELECT 0");
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replica, replicaProperties);
+        routingDataSource.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    // Junit test for routing read-only transactions
+    @DisplayName("Junit test for routing read-only transactions to the replica")
+    @Test
+    public void givenReadOnlyTransaction_whenQuerying_thenUseReplica() {
+        // Given
+        transactionTemplate.setReadOnly(true);
+        // When
+        String node = currentNode();
+        // Then
+        assertThat(node).isEqualTo("replica");
+    }
+
+    // Junit test for routing read-write transactions
+    @DisplayName("Junit test for routing read-write transactions to the primary")
+    @Test
+    public void givenReadWriteTransaction_whenQuerying_thenUsePrimary() {
+        // When
+        String node = currentNode();
+        // Then
+        assertThat(node).isEqualTo("primary");
+    }
+
+    // Junit test for falling back when the replica lags
+    @DisplayName("Junit test for routing reads to the primary while the replica lags")
+    @Test
+    public void givenLaggingReplica_whenQueryingReadOnly_thenUsePrimary() {
+        // Given
+        replicaProperties.setLagQuery("SELECT 60");
+        transactionTemplate.setReadOnly(true);
+        // When
+        routingDataSource.checkReplica();
+        String node = currentNode();
+        // Then
+        assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+        assertThat(node).isEqualTo("primary");
+    }
+
+    // Junit test for falling back when the replica is down
+    @DisplayName("Junit test for routing reads to the primary while the replica is down")
+    @Test
+    public void givenReplicaDown_whenQueryingReadOnly_thenUsePrimary() throws SQLException {
+        // Given
+        DataSource unreachableReplica = mock(DataSource.class);
+        given(unreachableReplica.getConnection()).willThrow(new SQLException("Connection refused"));
+        routingDataSource = new ReadWriteRoutingDataSource(primary, unreachableReplica, replicaProperties);
+        routingDataSource.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+        // When
+        String node = currentNode();
+        // Then
+        assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+        assertThat(node).isEqualTo("primary");
+    }
+
+    private String currentNode() {
+        return transactionTemplate.execute(status ->
+            jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static EmbeddedDatabase embeddedDatabase(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .setName(name)
+            .build();
+        new JdbcTemplate(database).execute("CREATE TABLE node (name VARCHAR(20))");
+        new JdbcTemplate(database).update("INSERT INTO node VALUES (?)", name);
+        return database;
+    }
+
+}
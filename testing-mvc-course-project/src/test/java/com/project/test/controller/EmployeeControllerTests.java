@@ -1,30 +1,61 @@
 package com.project.test.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeeChange;
+import com.project.test.dto.EmployeeChanges;
+import com.project.test.dto.EmployeeFieldsPage;
+import com.project.test.dto.EmployeeImportResult;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.dto.EmployeePage;
+import com.project.test.dto.EmployeePatch;
+import com.project.test.event.EmployeeEventBroadcaster;
+import com.project.test.exception.ResourceAlreadyExists;
 import com.project.test.model.Employee;
 import com.project.test.service.EmployeeService;
+import com.project.test.service.impl.EmployeeAsyncServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 @WebMvcTest
+// The bulkheads run for real around the mocked service
+@Import({EmployeeAsyncServiceImpl.class, SimpleMeterRegistry.class})
 public class EmployeeControllerTests {
 
     @Autowired
@@ -33,9 +64,15 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeEventBroadcaster employeeEventBroadcaster;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // Junit test for creating a new employee
     @Test
     public void givenEmployeeObject_whenCreatingEmployee_thenReturnSavedEmployee() throws Exception {
@@ -62,6 +99,55 @@ public class EmployeeControllerTests {
             .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    // Junit test for creating an employee whose email is taken
+    @Test
+    public void givenExistingEmail_whenCreatingEmployee_thenReturnConflictAndCountIt() throws Exception {
+        // Given
+        Employee employee = Employee.builder()
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email("mahmed@gmail.com")
+            .build();
+        given(employeeService.createEmployee(ArgumentMatchers.any(Employee.class)))
+            .willThrow(new ResourceAlreadyExists("Employee with email mahmed@gmail.com already exists"));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(post("/api/v1/employees")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(employee)));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isConflict());
+        assertThat(meterRegistry.get("employees.outcomes")
+            .tags("outcome", "already_exists", "method", "createEmployee")
+            .counter().count()).isEqualTo(1.0);
+    }
+
+    // Junit test for creating many employees at once
+    @Test
+    public void givenListOfEmployees_whenCreatingEmployees_thenReturnSavedEmployees() throws Exception {
+        // Given
+        List<Employee> employees = new ArrayList<>();
+        employees.add(Employee.builder().firstName("Mohamed").lastName("Ahmed").email("mahmed@gmail.com").build());
+        employees.add(Employee.builder().firstName("Ahmed").lastName("Samir").email("asamir@gmail.com").build());
+        given(employeeService.createEmployees(ArgumentMatchers.anyList()))
+            .willAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(
+            mockMvc.perform(post("/api/v1/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employees)))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.size()", is(employees.size())))
+            .andExpect(jsonPath("$[1].email", is(employees.get(1).getEmail())));
+    }
+
     // Junit test for listing all employees
     @Test
     public void givenListOfEmployees_whenGettingAllEmployees_thenReturnListOfEmployees() throws Exception {
@@ -80,6 +166,271 @@ public class EmployeeControllerTests {
             .andExpect(jsonPath("$.size()", is(employees.size())));
     }
 
+    // Junit test for listing employees page by page
+    @Test
+    public void givenCursorAndLimit_whenGettingEmployeesPage_thenReturnPageWithNextCursor() throws Exception {
+        // Given
+        List<Employee> employees = new ArrayList<>();
+        employees.add(Employee.builder().id(11L).firstName("Mohamed").lastName("Ahmed").email("mahmed@gmail.com").build());
+        employees.add(Employee.builder().id(12L).firstName("Ahmed").lastName("Samir").email("asamir@gmail.com").build());
+        given(employeeService.getEmployeesPage(10L, 2))
+            .willReturn(EmployeePage.builder().employees(employees).nextCursor(12L).build());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees")
+            .param("after", "10")
+            .param("limit", "2"));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.employees.size()", is(employees.size())))
+            .andExpect(jsonPath("$.nextCursor", is(12)));
+    }
+
+    // Junit test for listing only some columns of the employees
+    @Test
+    public void givenFields_whenGettingEmployeesFields_thenReturnOnlyRequestedFields() throws Exception {
+        // Given
+        List<Map<String, Object>> rows = List.of(
+            Map.of("id", 1L, "email", "mahmed@gmail.com"),
+            Map.of("id", 2L, "email", "asamir@gmail.com"));
+        given(employeeService.getEmployeesFields(List.of("id", "email"), 0L, 0))
+            .willReturn(new EmployeeFieldsPage(rows, 2L));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees")
+            .param("fields", "id,email"));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.employees.size()", is(rows.size())))
+            .andExpect(jsonPath("$.employees[0].email", is("mahmed@gmail.com")))
+            .andExpect(jsonPath("$.employees[0].firstName").doesNotExist())
+            .andExpect(jsonPath("$.nextCursor", is(2)));
+    }
+
+    // Junit test for listing unknown columns of the employees
+    @Test
+    public void givenUnknownField_whenGettingEmployeesFields_thenReturn400() throws Exception {
+        // Given
+        given(employeeService.getEmployeesFields(List.of("salary"), 0L, 0))
+            .willThrow(new IllegalArgumentException("Unknown field"));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees")
+            .param("fields", "salary"));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isBadRequest());
+    }
+
+    // Junit test for reading the changes since a cursor
+    @Test
+    public void givenCursor_whenGettingChanges_thenReturnChangesAndNextCursor() throws Exception {
+        // Given
+        Employee employee = Employee.builder().id(1L).firstName("Mohamed").lastName("Ahmed").email("mahmed@gmail.com").build();
+        EmployeeChanges changes = EmployeeChanges.builder()
+            .changes(List.of(
+                EmployeeChange.builder().type(EmployeeChange.Type.UPSERT).id(1L).employee(employee).build(),
+                EmployeeChange.builder().type(EmployeeChange.Type.DELETE).id(2L).build()))
+            .nextCursor("next")
+            .build();
+        given(employeeService.getEmployeeChanges("previous", 0)).willReturn(changes);
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees/changes")
+            .param("since", "previous"));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes.size()", is(2)))
+            .andExpect(jsonPath("$.changes[0].employee.email", is("mahmed@gmail.com")))
+            .andExpect(jsonPath("$.changes[1].type", is("DELETE")))
+            .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    // Junit test for bulk updating employees
+    @Test
+    public void givenBulkUpdate_whenUpdatingEmployees_thenReturnUpdatedCount() throws Exception {
+        // Given
+        EmployeeBulkUpdate update = EmployeeBulkUpdate.builder()
+            .emailDomain("gmail.com")
+            .newEmailDomain("example.com")
+            .build();
+        given(employeeService.bulkUpdateEmployees(update)).willReturn(12);
+
+        // When
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(
+            mockMvc.perform(post("/api/v1/employees/bulk-update")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", is(12)));
+    }
+
+    // Junit test for importing a CSV upload
+    @Test
+    public void givenCsvUpload_whenImportingEmployees_thenReturnImportCounts() throws Exception {
+        // Given
+        given(employeeService.importEmployees(any(InputStream.class)))
+            .willReturn(EmployeeImportResult.builder().inserted(2).skipped(1).build());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(post("/api/v1/employees/import")
+            .contentType("text/csv")
+            .content("first_name,last_name,email\nMohamed,Ahmed,mahmed@gmail.com\n"));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inserted", is(2)))
+            .andExpect(jsonPath("$.skipped", is(1)));
+    }
+
+    // Junit test for subscribing to the employee changes
+    @Test
+    public void givenDashboard_whenStreamingChanges_thenKeepTheEventStreamOpen() throws Exception {
+        // Given
+        given(employeeEventBroadcaster.subscribe()).willReturn(new SseEmitter());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees/stream")
+            .accept(MediaType.TEXT_EVENT_STREAM));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(request().asyncStarted());
+    }
+
+    // Junit test for getting many employees by their ids
+    @Test
+    public void givenEmployeeIds_whenGettingEmployeesByIds_thenReturnFoundAndMissingIds() throws Exception {
+        // Given
+        List<Employee> employees = new ArrayList<>();
+        employees.add(Employee.builder().id(2L).firstName("Ahmed").lastName("Samir").email("asamir@gmail.com").build());
+        employees.add(Employee.builder().id(1L).firstName("Mohamed").lastName("Ahmed").email("mahmed@gmail.com").build());
+        given(employeeService.getEmployeesByIds(List.of(2L, 1L, 5L)))
+            .willReturn(EmployeeLookup.builder().employees(employees).missingIds(List.of(5L)).build());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(
+            mockMvc.perform(get("/api/v1/employees")
+                .param("ids", "2,1,5"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.employees.size()", is(employees.size())))
+            .andExpect(jsonPath("$.employees[0].id", is(2)))
+            .andExpect(jsonPath("$.missingIds[0]", is(5)));
+    }
+
+    // Junit test for looking many employees up with a request body
+    @Test
+    public void givenEmployeeIdsBody_whenLookingEmployeesUp_thenReturnFoundAndMissingIds() throws Exception {
+        // Given
+        List<Long> employeeIds = List.of(1L, 5L);
+        Employee employee = Employee.builder().id(1L).firstName("Mohamed").lastName("Ahmed").email("mahmed@gmail.com").build();
+        given(employeeService.getEmployeesByIds(employeeIds))
+            .willReturn(EmployeeLookup.builder().employees(List.of(employee)).missingIds(List.of(5L)).build());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(
+            mockMvc.perform(post("/api/v1/employees/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employeeIds)))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.employees[0].email", is(employee.getEmail())))
+            .andExpect(jsonPath("$.missingIds[0]", is(5)));
+    }
+
+    // Junit test for exporting all employees as NDJSON
+    @Test
+    public void givenListOfEmployees_whenExportingEmployees_thenStreamOneJsonDocumentPerLine() throws Exception {
+        // Given
+        List<Employee> employees = new ArrayList<>();
+        employees.add(Employee.builder().id(1L).firstName("Mohamed").lastName("Ahmed").email("mahmed@gmail.com").build());
+        employees.add(Employee.builder().id(2L).firstName("Ahmed").lastName("Samir").email("asamir@gmail.com").build());
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            employees.forEach(consumer);
+            return null;
+        }).given(employeeService).exportEmployees(any());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(
+            mockMvc.perform(get("/api/v1/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // Then
+        String[] lines = resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(employees.size());
+        assertThat(objectMapper.readValue(lines[1], Employee.class)).isEqualTo(employees.get(1));
+    }
+
+    // Junit test for exporting all employees with parallel scans
+    @Test
+    public void givenPartitions_whenExportingEmployees_thenStreamTheParallelExport() throws Exception {
+        // Given
+        willAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+            return null;
+        }).given(employeeService).exportEmployeesInParallel(eq(4), any(OutputStream.class));
+
+        // When
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1/employees/export").param("partitions", "4"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(mvcResult));
+
+        // Then the export isn't bounded by spring.mvc.async.request-timeout
+        assertThat(mvcResult.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+        String[] lines = resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+    }
+
+    // Junit test for a parallel export over the limit
+    @Test
+    public void givenTooManyExports_whenExportingEmployeesInParallel_thenReturnServiceUnavailable() throws Exception {
+        // Given
+        willThrow(new RejectedExecutionException("Too many employee exports running"))
+            .given(employeeService).exportEmployeesInParallel(eq(4), any(OutputStream.class));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(
+            mockMvc.perform(get("/api/v1/employees/export").param("partitions", "4"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
     // Positive scenario
     // Junit test for getting employee by id
     @Test
@@ -105,6 +456,31 @@ public class EmployeeControllerTests {
            .andExpect(jsonPath("$.email", is(employee.getEmail())));
     }
 
+    // Junit test for getting employee by id when the client already has its current version
+    @Test
+    public void givenMatchingETag_whenGettingEmployeeById_thenReturn304WithoutBody() throws Exception {
+        // Given
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+            .id(employeeId)
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email("mahmed@gmail.com")
+            .version(3L)
+            .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees/{id}", employeeId)
+            .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+            .andExpect(content().string(""));
+    }
+
     // Negative scenario
     // Junit test for getting employee by id
     @Test
@@ -119,6 +495,49 @@ public class EmployeeControllerTests {
 
         // Then
         resultActions.andDo(print()).andExpect(status().isNotFound());
+        assertThat(meterRegistry.get("employees.outcomes")
+            .tags("outcome", "not_found", "method", "getEmployeeById")
+            .counter().count()).isPositive();
+    }
+
+    // Junit test for getting employee by email
+    @Test
+    public void givenEmployeeEmail_whenGettingEmployeeByEmail_thenReturnEmployeeObject() throws Exception {
+        // Given
+        Employee employee = Employee.builder()
+            .id(1L)
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email("mahmed@gmail.com")
+            .version(2L)
+            .build();
+        given(employeeService.getEmployeeByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees")
+            .param("email", employee.getEmail()));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+            .andExpect(jsonPath("$.id", is(1)))
+            .andExpect(jsonPath("$.email", is(employee.getEmail())));
+    }
+
+    // Negative scenario
+    // Junit test for getting employee by email
+    @Test
+    public void givenUnknownEmail_whenGettingEmployeeByEmail_thenReturn404() throws Exception {
+        // Given
+        given(employeeService.getEmployeeByEmail("unknown@gmail.com")).willReturn(Optional.empty());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees")
+            .param("email", "unknown@gmail.com"));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isNotFound());
     }
 
     // Positive scenario
@@ -154,6 +573,38 @@ public class EmployeeControllerTests {
             .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
     }
 
+    // Junit test for updating employee with an outdated version
+    @Test
+    public void givenOutdatedETag_whenUpdatingEmployee_thenReturn412() throws Exception {
+        // Given
+        long employeeId = 1L;
+        Employee savedEmployee = Employee.builder()
+            .id(employeeId)
+            .firstName("Ahmed")
+            .lastName("Samir")
+            .email("asamir@gmail.com")
+            .version(4L)
+            .build();
+        Employee updatedEmployee = Employee.builder()
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email("mahmed@gmail.com")
+            .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
+        given(employeeService.updateEmployee(any(Employee.class)))
+            .willThrow(new OptimisticLockingFailureException("Employee has been modified"));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(put("/api/v1/employees/{id}", employeeId)
+            .header(HttpHeaders.IF_MATCH, "\"3\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isPreconditionFailed());
+        verify(employeeService).updateEmployee(argThat(employee -> employee.getVersion() == 3L));
+    }
+
     // Negative scenario
     // Junit test for updating employee
     @Test
@@ -178,12 +629,57 @@ public class EmployeeControllerTests {
         resultActions.andDo(print()).andExpect(status().isNotFound());
     }
 
+    // Positive scenario
+    // Junit test for patching employee
+    @Test
+    public void givenEmployeePatch_whenPatchingEmployee_thenReturnThePatchedEmployee() throws Exception {
+        // Given
+        long employeeId = 1L;
+        EmployeePatch patch = EmployeePatch.builder().email("mahmed@gmail.com").build();
+        Employee patchedEmployee = Employee.builder()
+            .id(employeeId)
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email("mahmed@gmail.com")
+            .build();
+        given(employeeService.patchEmployee(employeeId, patch, null)).willReturn(Optional.of(patchedEmployee));
+
+        // When
+        ResultActions resultActions = mockMvc.perform(patch("/api/v1/employees/{id}", employeeId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(patch)));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.firstName", is(patchedEmployee.getFirstName())))
+            .andExpect(jsonPath("$.email", is(patch.getEmail())));
+    }
+
+    // Negative scenario
+    // Junit test for patching employee
+    @Test
+    public void givenInvalidEmployeeId_whenPatchingEmployee_thenReturnEmptyResponse() throws Exception {
+        // Given
+        long employeeId = 5L;
+        EmployeePatch patch = EmployeePatch.builder().email("mahmed@gmail.com").build();
+        given(employeeService.patchEmployee(employeeId, patch, null)).willReturn(Optional.empty());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(patch("/api/v1/employees/{id}", employeeId)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(patch)));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isNotFound());
+    }
+
     // Junit test for deleting employee
     @Test
     public void givenEmployeeId_whenDeletingEmployee_thenReturn200() throws Exception {
         // Given
         long employeeId = 1L;
-        willDoNothing().given(employeeService).deleteEmployee(employeeId);
+        given(employeeService.deleteEmployee(employeeId)).willReturn(true);
 
         // When
         ResultActions resultActions = mockMvc.perform(delete("/api/v1/employees/{id}",
@@ -195,4 +691,39 @@ public class EmployeeControllerTests {
             .andExpect(jsonPath("$").isString());
     }
 
+    // Negative scenario
+    // Junit test for deleting employee
+    @Test
+    public void givenInvalidEmployeeId_whenDeletingEmployee_thenReturn404() throws Exception {
+        // Given
+        long employeeId = 5L;
+        given(employeeService.deleteEmployee(employeeId)).willReturn(false);
+
+        // When
+        ResultActions resultActions = mockMvc.perform(delete("/api/v1/employees/{id}",
+            employeeId));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isNotFound());
+    }
+
+    // Junit test for deleting many employees at once
+    @Test
+    public void givenEmployeeIds_whenDeletingEmployees_thenReturnDeletedCount() throws Exception {
+        // Given
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 5L))).willReturn(2);
+
+        // When
+        ResultActions resultActions = mockMvc.perform(asyncDispatch(
+            mockMvc.perform(delete("/api/v1/employees")
+                .param("ids", "1,2,5"))
+                .andExpect(request().asyncStarted())
+                .andReturn()));
+
+        // Then
+        resultActions.andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", is(2)));
+    }
+
 }
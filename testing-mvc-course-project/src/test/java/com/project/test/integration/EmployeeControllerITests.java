@@ -1,28 +1,40 @@
 package com.project.test.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.test.dto.EmployeePatch;
 import com.project.test.model.Employee;
+import com.project.test.dto.EmployeeChanges;
 import com.project.test.repository.EmployeeRepository;
+import com.project.test.repository.EmployeeTombstoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+// No settle time so that the change feed returns the changes made by the tests right away
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "employees.changes.settle-time=0s")
 @AutoConfigureMockMvc
 public class EmployeeControllerITests {
 
@@ -32,12 +44,26 @@ public class EmployeeControllerITests {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EmployeeTombstoneRepository employeeTombstoneRepository;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         employeeRepository.deleteAll();
+        employeeTombstoneRepository.deleteAll();
+    }
+
+    // This context has its own properties but shares the database with the other tests
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll();
+        employeeTombstoneRepository.deleteAll();
     }
 
     // Junit test for creating a new employee
@@ -155,6 +181,37 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$.email", is(updatedEmployee.getEmail())));
     }
 
+    // Junit test for updating employee with the email of another one
+    @Test
+    public void givenEmailOfAnotherEmployee_whenUpdatingEmployee_thenReturnConflict() throws Exception {
+        // Given
+        Employee savedEmployee = employeeRepository.save(Employee.builder()
+                .firstName("Ahmed")
+                .lastName("Samir")
+                .email("asamir@gmail.com")
+                .build());
+        employeeRepository.save(Employee.builder()
+                .firstName("Mohamed")
+                .lastName("Ahmed")
+                .email("mahmed@gmail.com")
+                .build());
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Ahmed")
+                .lastName("Samir")
+                .email("mahmed@gmail.com")
+                .build();
+
+        // When
+        ResultActions resultActions = mockMvc.perform(put("/api/v1/employees/{id}", savedEmployee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isConflict());
+        assertThat(employeeRepository.findById(savedEmployee.getId()))
+                .map(Employee::getEmail).contains("asamir@gmail.com");
+    }
+
     // Negative scenario
     // Junit test for updating employee
     @Test
@@ -177,6 +234,56 @@ public class EmployeeControllerITests {
         resultActions.andDo(print()).andExpect(status().isNotFound());
     }
 
+    // Junit test for patching employee
+    @Test
+    public void givenEmployeePatch_whenPatchingEmployee_thenReturnThePatchedEmployee() throws Exception {
+        // Given
+        Employee savedEmployee = Employee.builder()
+                .firstName("Ahmed")
+                .lastName("Samir")
+                .email("asamir@gmail.com")
+                .build();
+        employeeRepository.save(savedEmployee);
+        EmployeePatch patch = EmployeePatch.builder().lastName("Ahmed").build();
+
+        // When
+        ResultActions resultActions = mockMvc.perform(patch("/api/v1/employees/{id}",
+            savedEmployee.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(patch)));
+
+        // Then
+        resultActions.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName", is(savedEmployee.getFirstName())))
+                .andExpect(jsonPath("$.lastName", is(patch.getLastName())))
+                .andExpect(jsonPath("$.email", is(savedEmployee.getEmail())));
+    }
+
+    // Junit test for updating employee with an outdated version
+    @Test
+    public void givenOutdatedETag_whenUpdatingEmployee_thenReturn412() throws Exception {
+        // Given
+        Employee savedEmployee = Employee.builder()
+                .firstName("Ahmed")
+                .lastName("Samir")
+                .email("asamir@gmail.com")
+                .build();
+        employeeRepository.save(savedEmployee);
+        savedEmployee.setLastName("Ahmed");
+        employeeRepository.save(savedEmployee);
+
+        // When
+        ResultActions resultActions = mockMvc.perform(put("/api/v1/employees/{id}",
+            savedEmployee.getId())
+            .header(HttpHeaders.IF_MATCH, "\"0\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(savedEmployee)));
+
+        // Then
+        resultActions.andDo(print()).andExpect(status().isPreconditionFailed());
+    }
+
     // Junit test for deleting employee
     @Test
     public void givenEmployeeId_whenDeletingEmployee_thenReturn200() throws Exception {
@@ -198,4 +305,127 @@ public class EmployeeControllerITests {
                 .andExpect(jsonPath("$").isString());
     }
 
+    // Junit test for following the changes with the returned cursor
+    @Test
+    public void givenCreatedAndDeletedEmployees_whenGettingChanges_thenReturnUpsertsAndDeletes() throws Exception {
+        // Given
+        Employee deletedEmployee = employeeRepository.save(Employee.builder()
+                .firstName("Mohamed")
+                .lastName("Ahmed")
+                .email("mahmed@gmail.com")
+                .build());
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Ahmed")
+                .lastName("Samir")
+                .email("asamir@gmail.com")
+                .build());
+        mockMvc.perform(delete("/api/v1/employees/{id}", deletedEmployee.getId()))
+                .andExpect(status().isOk());
+
+        // When
+        ResultActions resultActions = mockMvc.perform(get("/api/v1/employees/changes"));
+
+        // Then
+        String body = resultActions.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.size()", is(2)))
+                .andExpect(jsonPath("$.changes[0].type", is("UPSERT")))
+                .andExpect(jsonPath("$.changes[0].employee.email", is(employee.getEmail())))
+                .andExpect(jsonPath("$.changes[1].type", is("DELETE")))
+                .andExpect(jsonPath("$.changes[1].id", is((int) deletedEmployee.getId())))
+                .andReturn().getResponse().getContentAsString();
+        // Nothing changed since the returned cursor, which still moves forward with the time
+        String nextCursor = objectMapper.readValue(body, EmployeeChanges.class).getNextCursor();
+        mockMvc.perform(get("/api/v1/employees/changes").param("since", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.size()", is(0)))
+                .andExpect(jsonPath("$.hasMore", is(false)))
+                .andExpect(jsonPath("$.nextCursor", not(nextCursor)));
+    }
+
+    // Junit test for receiving the changes pushed to a dashboard
+    @Test
+    public void givenStreamingDashboard_whenCreatingEmployee_thenPushUpsertEvent() throws Exception {
+        // Given
+        MvcResult stream = mockMvc.perform(get("/api/v1/employees/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        Employee employee = Employee.builder()
+                .firstName("Mohamed")
+                .lastName("Ahmed")
+                .email("mahmed@gmail.com")
+                .build();
+
+        // When
+        mockMvc.perform(post("/api/v1/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isCreated());
+
+        // Then
+        String events = "";
+        for (int i = 0; i < 50 && !events.contains("mahmed@gmail.com"); i++) {
+            Thread.sleep(100);
+            events = stream.getResponse().getContentAsString();
+        }
+        assertThat(events).contains("event:upsert").contains("mahmed@gmail.com");
+    }
+
+    // Junit test for exporting all employees with parallel scans
+    @Test
+    public void givenManyEmployees_whenExportingInParallel_thenWriteEveryEmployeeInIdOrder() throws Exception {
+        // Given
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            employees.add(Employee.builder().firstName("Mohamed").lastName("Ahmed").email("mahmed" + i + "@gmail.com").build());
+        }
+        employeeRepository.saveAll(employees);
+
+        // When
+        MvcResult export = mockMvc.perform(get("/api/v1/employees/export").param("partitions", "4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String[] lines = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(employees.size());
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            ids.add(objectMapper.readValue(line, Employee.class).getId());
+        }
+        assertThat(ids).isSorted();
+    }
+
+    // Junit test for the metrics recorded by a request at every layer
+    @Test
+    public void givenEmployee_whenGettingEmployeeByEmail_thenTimeEveryLayer() throws Exception {
+        // Given
+        Employee employee = employeeRepository.save(Employee.builder()
+                .firstName("Mohamed")
+                .lastName("Ahmed")
+                .email("mahmed@gmail.com")
+                .build());
+
+        // When
+        mockMvc.perform(get("/api/v1/employees").param("email", employee.getEmail()))
+                .andExpect(status().isOk());
+
+        // Then
+        assertThat(meterRegistry.get("http.server.requests").tag("uri", "/api/v1/employees")
+                .timer().count()).isPositive();
+        assertThat(meterRegistry.get("employees.service")
+                .tags("class", "com.project.test.service.impl.EmployeeServiceImpl", "method", "getEmployeeByEmail")
+                .timer().count()).isPositive();
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "EmployeeRepository", "method", "findByEmail")
+                .timer().count()).isPositive();
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").timers()).isNotEmpty();
+        assertThat(meterRegistry.get("employees.sql").timers()).isNotEmpty();
+        assertThat(meterRegistry.get("hibernate.query.executions").functionCounter().count()).isPositive();
+        assertThat(meterRegistry.get("jvm.memory.used").gauges()).isNotEmpty();
+    }
+
 }
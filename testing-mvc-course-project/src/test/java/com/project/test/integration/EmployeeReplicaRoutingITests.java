@@ -0,0 +1,131 @@
+package com.project.test.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.test.config.CacheConfig;
+import com.project.test.model.Employee;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The replica is an in-memory database holding a copy of the employee, so the node that ran each
+// statement can be told from the rows left behind. The PUT reads the employee before saving it.
+// The rows are written with JDBC, around the caches, so the caches are cleared before each test.
+@SpringBootTest(properties = {
+    "employees.replica.datasource.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;INIT="
+        + "CREATE TABLE IF NOT EXISTS employees (id BIGINT PRIMARY KEY, first_name VARCHAR(255) NOT NULL, "
+        + "last_name VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL, version BIGINT NOT NULL, "
+        + "created_at TIMESTAMP WITH TIME ZONE NOT NULL, updated_at TIMESTAMP WITH TIME ZONE NOT NULL)",
+    "employees.replica.datasource.username=sa",
+    "employees.replica.datasource.password=",
+    "employees.replica.lag-query=SELECT 0"
+})
+@AutoConfigureMockMvc
+public class EmployeeReplicaRoutingITests {
+
+    private static final long EMPLOYEE_ID = 900_001L;
+    private static final String INSERT_EMPLOYEE = "INSERT INTO employees "
+        + "(id, first_name, last_name, email, version, created_at, updated_at) "
+        + "VALUES (?, 'Mohamed', 'Ahmed', 'mahmed@replica.com', 0, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+    private static final String SELECT_EMAIL = "SELECT email FROM employees WHERE id = ?";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @Autowired
+    void setDataSources(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                        @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        primary.update(INSERT_EMPLOYEE, EMPLOYEE_ID);
+        replica.update(INSERT_EMPLOYEE, EMPLOYEE_ID);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    // The primary is shared with the other tests
+    @AfterEach
+    void tearDown() {
+        primary.update("DELETE FROM employees WHERE id = ?", EMPLOYEE_ID);
+        replica.update("DELETE FROM employees WHERE id = ?", EMPLOYEE_ID);
+    }
+
+    // Junit test for writing an employee loaded in the same request
+    @Test
+    public void givenEmployeeOnBothNodes_whenUpdatingEmployee_thenWriteToPrimaryOnly() throws Exception {
+        // Given
+        Employee updatedEmployee = Employee.builder()
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email("mohamed@primary.com")
+            .build();
+
+        // When
+        mockMvc.perform(put("/api/v1/employees/{id}", EMPLOYEE_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)))
+            .andDo(print())
+            .andExpect(status().isOk());
+
+        // Then
+        assertThat(primary.queryForObject(SELECT_EMAIL, String.class, EMPLOYEE_ID)).isEqualTo("mohamed@primary.com");
+        assertThat(replica.queryForObject(SELECT_EMAIL, String.class, EMPLOYEE_ID)).isEqualTo("mahmed@replica.com");
+    }
+
+    // Junit test for keeping the replica rows out of the caches
+    @Test
+    public void givenLaggingReplica_whenScanningThenGettingEmployee_thenReadReplicaWithoutCaching() throws Exception {
+        // Given
+        primary.update("UPDATE employees SET email = 'mahmed@primary.com' WHERE id = ?", EMPLOYEE_ID);
+
+        // When
+        mockMvc.perform(get("/api/v1/employees")
+                .param("after", String.valueOf(EMPLOYEE_ID - 1))
+                .param("limit", "1"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.employees[0].email").value("mahmed@replica.com"));
+        mockMvc.perform(get("/api/v1/employees/{id}", EMPLOYEE_ID))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.email").value("mahmed@replica.com"));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Employee.class, EMPLOYEE_ID)).isFalse();
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(EMPLOYEE_ID)).isNull();
+    }
+
+}
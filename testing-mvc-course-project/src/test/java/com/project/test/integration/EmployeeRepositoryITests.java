@@ -2,12 +2,17 @@ package com.project.test.integration;
 
 import com.project.test.model.Employee;
 import com.project.test.repository.EmployeeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -21,6 +26,9 @@ public class EmployeeRepositoryITests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
     private List<Employee> employees;
 
     @BeforeEach
@@ -134,4 +142,27 @@ public class EmployeeRepositoryITests {
         assertThat(retrievedEmployee.getLastName()).isEqualTo("Ahmed");
     }
 
+    // Junit test for the second-level query cache, outside of a test transaction so that each call commits
+    @DisplayName("Junit Test for serving repeated queries from the cache until employees change")
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void givenCachedQuery_whenRepeatingIt_thenServeItFromCacheUntilEmployeesChange() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Employee employee = employeeRepository.save(employees.get(0));
+        try {
+            employeeRepository.findByJpql("Mohamed", "Ahmed");
+            long hits = statistics.getQueryCacheHitCount();
+            // When
+            Employee cachedEmployee = employeeRepository.findByJpql("Mohamed", "Ahmed").get();
+            employeeRepository.save(cachedEmployee.toBuilder().email("mohamed.ahmed@example.com").build());
+            Employee updatedEmployee = employeeRepository.findByJpql("Mohamed", "Ahmed").get();
+            // Then
+            assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hits + 1);
+            assertThat(updatedEmployee.getEmail()).isEqualTo("mohamed.ahmed@example.com");
+        } finally {
+            employeeRepository.deleteById(employee.getId());
+        }
+    }
+
 }
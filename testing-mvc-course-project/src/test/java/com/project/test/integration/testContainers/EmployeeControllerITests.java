@@ -12,6 +12,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -20,10 +21,12 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -202,4 +205,60 @@ public class EmployeeControllerITests extends AbstractBaseITest {
                 .andExpect(jsonPath("$").isString());
     }
 
+    // Junit test for importing a CSV file with COPY, only runs against PostgreSQL
+    @Test
+    public void givenCsvWithDuplicates_whenImportingEmployees_thenInsertOnlyNewEmails() throws Exception {
+        // Given
+        employeeRepository.save(Employee.builder()
+                .firstName("Mohamed")
+                .lastName("Ahmed")
+                .email("mahmed@gmail.com")
+                .build());
+        String csv = """
+                first_name,last_name,email
+                Mohamed,Ahmed,mahmed@gmail.com
+                Ahmed,Samir,asamir@gmail.com
+                Ahmed,Samir,asamir@gmail.com
+                Sara,,sara@gmail.com
+                """;
+
+        // When
+        ResultActions resultActions = mockMvc.perform(post("/api/v1/employees/import")
+                .contentType("text/csv")
+                .content(csv));
+
+        // Then
+        resultActions.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted", is(1)))
+                .andExpect(jsonPath("$.skipped", is(3)));
+    }
+
+    // Junit test for exporting with parallel scans sharing an exported snapshot
+    @Test
+    public void givenManyEmployees_whenExportingInParallel_thenWriteEveryEmployeeInIdOrder() throws Exception {
+        // Given
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            employees.add(Employee.builder().firstName("Mohamed").lastName("Ahmed").email("mahmed" + i + "@gmail.com").build());
+        }
+        employeeRepository.saveAll(employees);
+
+        // When
+        MvcResult export = mockMvc.perform(get("/api/v1/employees/export").param("partitions", "4"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String[] lines = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(employees.size());
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines) {
+            ids.add(objectMapper.readValue(line, Employee.class).getId());
+        }
+        assertThat(ids).isSorted();
+    }
+
 }
@@ -1,26 +1,44 @@
 package com.project.test.integration.testContainers;
 
 import com.project.test.model.Employee;
+import com.project.test.repository.EmployeeCopyRepository;
 import com.project.test.repository.EmployeeRepository;
+import com.project.test.repository.EmployeeSequenceInitializer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmployeeSequenceInitializer.class, EmployeeCopyRepository.class})
 public class EmployeeRepositoryITests extends AbstractBaseITest {
 
     @Autowired
     private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeSequenceInitializer employeeSequenceInitializer;
+
+    @Autowired
+    private EmployeeCopyRepository employeeCopyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     private List<Employee> employees;
 
     @BeforeEach
@@ -134,4 +152,39 @@ public class EmployeeRepositoryITests extends AbstractBaseITest {
         assertThat(retrievedEmployee.getLastName()).isEqualTo("Ahmed");
     }
 
+    // Junit test for moving the id sequence past the rows numbered before it existed
+    @DisplayName("Junit Test for aligning the id sequence with the existing employees")
+    @Test
+    public void givenEmployeeWithIdAboveSequence_whenInitializing_thenSequenceSkipsItsId() {
+        // Given
+        jdbcTemplate.update("INSERT INTO employees (id, first_name, last_name, email, version, created_at, updated_at) "
+                + "VALUES (100000, 'Mohamed', 'Ahmed', 'legacy@example.com', 0, now(), now())");
+        // When
+        employeeSequenceInitializer.afterPropertiesSet();
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('employees_seq')", Long.class))
+                .isGreaterThan(100000L);
+    }
+
+    // Junit test for importing employees with dense ids
+    @DisplayName("Junit Test for importing employees with consecutive ids")
+    @Test
+    public void givenCsvLargerThanIdBlock_whenCopying_thenAssignConsecutiveIds() {
+        // Given
+        String csv = IntStream.range(0, 120)
+                .mapToObj(i -> "Mohamed,Ahmed,import-%03d@example.com".formatted(i))
+                .collect(Collectors.joining("\n", "first_name,last_name,email\n", "\n"));
+        // When
+        EmployeeCopyRepository.CopyResult result = employeeCopyRepository.copyCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+        // Then
+        assertThat(result.inserted()).isEqualTo(120);
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM employees WHERE email LIKE 'import-%' ORDER BY email", Long.class);
+        assertThat(ids).hasSize(120);
+        // Three blocks are reserved, the ids only jump between them
+        assertThat(IntStream.range(1, ids.size()).filter(i -> ids.get(i) != ids.get(i - 1) + 1).count())
+                .isLessThanOrEqualTo(2);
+    }
+
 }
@@ -0,0 +1,89 @@
+package com.project.test.limit;
+
+import com.project.test.config.EmployeeProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimitTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private AdaptiveConcurrencyLimit limit;
+
+    @BeforeEach
+    public void setup() {
+        EmployeeProperties.Limit properties = new EmployeeProperties.Limit(4, 6, Duration.ofMillis(100));
+        properties.setMinLimit(2);
+        properties.setBackoffRatio(0.5);
+        limit = new AdaptiveConcurrencyLimit(properties);
+    }
+
+    // Junit test for acquiring over the limit
+    @DisplayName("Junit test for rejecting requests over the limit")
+    @Test
+    public void givenLimitReached_whenAcquiring_thenReject() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+        // When
+        boolean acquired = limit.tryAcquire();
+        // Then
+        assertThat(acquired).isFalse();
+        assertThat(limit.getInFlight()).isEqualTo(4);
+    }
+
+    // Junit test for fast requests under load
+    @DisplayName("Junit test for growing the limit up to its maximum while requests are fast")
+    @Test
+    public void givenFastRequestsAtTheLimit_whenReleasing_thenGrowTheLimit() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            limit.tryAcquire();
+        }
+        // When
+        for (int i = 0; i < 4; i++) {
+            limit.release(0, FAST, false);
+            limit.tryAcquire();
+        }
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(6);
+    }
+
+    // Junit test for slow requests
+    @DisplayName("Junit test for shrinking the limit once per slow window")
+    @Test
+    public void givenSlowRequests_whenReleasing_thenShrinkTheLimitOnce() {
+        // Given
+        limit.tryAcquire();
+        limit.tryAcquire();
+        // When
+        limit.release(0, SLOW, false);
+        // Started before the decrease, it ran under the previous limit
+        limit.release(0, SLOW + 1, false);
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(2);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    // Junit test for failed requests
+    @DisplayName("Junit test for shrinking the limit down to its minimum when requests fail")
+    @Test
+    public void givenFailedRequests_whenReleasing_thenShrinkDownToTheMinimum() {
+        // When
+        for (int i = 1; i <= 3; i++) {
+            limit.tryAcquire();
+            limit.release(i * SLOW, i * SLOW + FAST, true);
+        }
+        // Then
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.project.test.limit;
+
+import com.project.test.config.EmployeeProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrencyLimitFilterTests {
+
+    private MeterRegistry meterRegistry;
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @BeforeEach
+    public void setup() {
+        EmployeeProperties.ConcurrencyLimit properties = new EmployeeProperties.ConcurrencyLimit();
+        properties.setRetryAfter(Duration.ofSeconds(2));
+        properties.getRead().setInitialLimit(1);
+        properties.getWrite().setInitialLimit(1);
+        meterRegistry = new SimpleMeterRegistry();
+        concurrencyLimitFilter = new ConcurrencyLimitFilter(properties, meterRegistry);
+    }
+
+    // Junit test for a request over the read limit
+    @DisplayName("Junit test for rejecting reads over the limit with 503 and Retry-After")
+    @Test
+    public void givenReadLimitReached_whenFiltering_thenReturn503WithRetryAfter() throws Exception {
+        // Given
+        concurrencyLimitFilter.getReadLimit().tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+        // When
+        concurrencyLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/v1/employees/1"), response,
+            filterChain);
+        // Then
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(filterChain.getRequest()).isNull();
+        assertThat(meterRegistry.get("employees.concurrency.rejected").tag("kind", "read").counter().count())
+            .isEqualTo(1);
+    }
+
+    // Junit test for a write while the reads are at their limit
+    @DisplayName("Junit test for letting writes through while the reads are at their limit")
+    @Test
+    public void givenReadLimitReached_whenFilteringWrite_thenPassIt() throws Exception {
+        // Given
+        concurrencyLimitFilter.getReadLimit().tryAcquire();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (request, chainResponse) ->
+            assertThat(concurrencyLimitFilter.getWriteLimit().getInFlight()).isEqualTo(1);
+        // When
+        concurrencyLimitFilter.doFilter(new MockHttpServletRequest("POST", "/api/v1/employees"), response,
+            filterChain);
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(concurrencyLimitFilter.getWriteLimit().getInFlight()).isZero();
+        assertThat(meterRegistry.get("employees.concurrency.limit").tag("kind", "write").gauge().value())
+            .isEqualTo(2);
+    }
+
+}
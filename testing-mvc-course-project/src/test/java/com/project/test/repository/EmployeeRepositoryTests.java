@@ -1,23 +1,33 @@
 package com.project.test.repository;
 
+import com.project.test.dto.EmployeeBulkUpdate;
 import com.project.test.model.Employee;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @DataJpaTest
 public class EmployeeRepositoryTests {
 
     @Autowired
     private EmployeeRepository employeeRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
     private List<Employee> employees;
 
     @BeforeEach
@@ -61,6 +71,51 @@ public class EmployeeRepositoryTests {
         assertThat(employees).size().isEqualTo(2);
     }
 
+    // Junit test for getting the employees after a given id
+    @DisplayName("Junit Test for getting employees page after a cursor")
+    @Test
+    public void givenManyEmployeeObjectsInDB_whenGettingEmployeesAfterId_thenReturnNextEmployeesOrderedById() {
+        // Given
+        List<Employee> savedEmployees = employeeRepository.saveAll(employees);
+        long firstId = savedEmployees.get(0).getId();
+        // When
+        List<Employee> page = employeeRepository.findByIdGreaterThanOrderByIdAsc(firstId, Limit.of(10));
+        // Then
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).getId()).isGreaterThan(firstId);
+    }
+
+    // Junit test for selecting only some columns of the employees
+    @DisplayName("Junit Test for getting employees fields")
+    @Test
+    public void givenManyEmployeeObjectsInDB_whenGettingEmployeesFields_thenReturnOnlyRequestedFields() {
+        // Given
+        employeeRepository.saveAll(employees);
+        // When
+        List<Map<String, Object>> rows = employeeRepository.findFieldsByIdGreaterThan(
+                List.of("id", "email"), 0L, 10);
+        // Then
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).containsOnlyKeys("id", "email");
+        assertThat(rows.get(0).get("email")).isEqualTo("mahmed@example.com");
+    }
+
+    // Junit test for streaming all employees
+    @DisplayName("Junit Test for streaming all employees")
+    @Test
+    public void givenManyEmployeeObjectsInDB_whenStreamingAllEmployees_thenReturnEmployeesOrderedById() {
+        // Given
+        employeeRepository.saveAll(employees);
+        // When
+        List<Employee> streamedEmployees;
+        try (Stream<Employee> stream = employeeRepository.streamAll(1000)) {
+            streamedEmployees = stream.toList();
+        }
+        // Then
+        assertThat(streamedEmployees).hasSize(2);
+        assertThat(streamedEmployees.get(0).getId()).isLessThan(streamedEmployees.get(1).getId());
+    }
+
     // Junit test for getting employee by id
     @DisplayName("Junit Test for getting employee by id")
     @Test
@@ -87,6 +142,35 @@ public class EmployeeRepositoryTests {
         assertThat(retrievedEmployee.getFirstName()).isEqualTo("Mohamed");
     }
 
+    // Junit test for saving an employee with an email that is already used
+    @DisplayName("Junit Test for saving employee with duplicated email")
+    @Test
+    public void givenEmployeeObjectInDB_whenSavingEmployeeWithSameEmail_thenThrowException() {
+        // Given
+        Employee employee = employeeRepository.save(employees.get(0));
+        Employee duplicatedEmployee = Employee.builder()
+                .firstName("Ahmed")
+                .lastName("Samir")
+                .email(employee.getEmail())
+                .build();
+        // When & Then
+        assertThatThrownBy(() -> employeeRepository.saveAndFlush(duplicatedEmployee))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    // Junit test for getting the already used emails among many
+    @DisplayName("Junit Test for getting existing emails")
+    @Test
+    public void givenEmployeeObjectInDB_whenGettingExistingEmails_thenReturnOnlyUsedEmails() {
+        // Given
+        Employee employee = employeeRepository.save(employees.get(0));
+        // When
+        List<String> existingEmails = employeeRepository.findExistingEmails(
+                List.of(employee.getEmail(), "unknown@example.com"));
+        // Then
+        assertThat(existingEmails).containsExactly(employee.getEmail());
+    }
+
     // Junit test for updating employee from database
     @DisplayName("Junit Test for updating employee from database")
     @Test
@@ -117,6 +201,34 @@ public class EmployeeRepositoryTests {
         assertThat(employeeRepository.count()).isZero();
     }
 
+    // Junit test for deleting employee by id with a single statement
+    @DisplayName("Junit Test for deleting employee by id")
+    @Test
+    public void givenEmployeeObjectInDB_whenDeletingEmployeeById_thenReturnDeletedCount() {
+        // Given
+        Employee employee = employeeRepository.save(employees.get(0));
+        // When
+        int deleted = employeeRepository.deleteEmployeeById(employee.getId());
+        int deletedAgain = employeeRepository.deleteEmployeeById(employee.getId());
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(deletedAgain).isZero();
+    }
+
+    // Junit test for deleting many employees with a single statement
+    @DisplayName("Junit Test for deleting employees by ids")
+    @Test
+    public void givenManyEmployeeObjectsInDB_whenDeletingEmployeesByIds_thenReturnDeletedCount() {
+        // Given
+        List<Employee> savedEmployees = employeeRepository.saveAll(employees);
+        // When
+        int deleted = employeeRepository.deleteEmployeesByIds(List.of(
+                savedEmployees.get(0).getId(), savedEmployees.get(1).getId(), 0L));
+        // Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(employeeRepository.count()).isZero();
+    }
+
     // Junit test for getting employee using first name and last name
     @DisplayName("Junit Test for getting employee by firstname & lastname")
     @Test
@@ -131,4 +243,32 @@ public class EmployeeRepositoryTests {
         assertThat(retrievedEmployee.getLastName()).isEqualTo("Ahmed");
     }
 
+    // Junit test for rewriting the email domain of many employees with one statement
+    @DisplayName("Junit Test for bulk updating employees by email domain")
+    @Test
+    public void givenManyEmployeeObjectsInDB_whenBulkUpdatingEmailDomain_thenRewriteOnlyMatchingEmails() {
+        // Given
+        employees.add(Employee.builder()
+                .firstName("Sara")
+                .lastName("Ali")
+                .email("sali@other.com")
+                .build());
+        List<Employee> savedEmployees = employeeRepository.saveAllAndFlush(employees);
+        EmployeeBulkUpdate update = EmployeeBulkUpdate.builder()
+                .emailDomain("example.com")
+                .newEmailDomain("example.org")
+                .build();
+        // When
+        int updated = employeeRepository.bulkUpdate(update, savedEmployees.get(0).getId(),
+                savedEmployees.get(2).getId(), Instant.now());
+        // The UPDATE bypasses the persistence context, which still holds the saved state
+        testEntityManager.clear();
+        // Then
+        assertThat(updated).isEqualTo(2);
+        assertThat(employeeRepository.findExistingEmails(List.of(
+                "mahmed@example.org", "asamir@example.org", "sali@other.com"))).hasSize(3);
+        assertThat(employeeRepository.findByEmail("mahmed@example.org").get().getVersion())
+                .isEqualTo(savedEmployees.get(0).getVersion() + 1);
+    }
+
 }
@@ -0,0 +1,114 @@
+package com.project.test.service;
+
+import com.project.test.config.EmployeeProperties;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.service.impl.EmployeeAsyncServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeAsyncServiceTests {
+
+    @Mock
+    private EmployeeService employeeService;
+    private EmployeeProperties employeeProperties;
+    private MeterRegistry meterRegistry;
+    private EmployeeAsyncServiceImpl employeeAsyncService;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setup() {
+        employeeProperties = new EmployeeProperties();
+        employeeProperties.getBulkhead().getWrite().setThreads(1);
+        employeeProperties.getBulkhead().getWrite().setQueueCapacity(1);
+        meterRegistry = new SimpleMeterRegistry();
+        employeeAsyncService = new EmployeeAsyncServiceImpl(employeeService, employeeProperties, meterRegistry,
+            false);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        employeeAsyncService.destroy();
+    }
+
+    // Junit test for a write burst
+    @DisplayName("Junit test for rejecting writes once the write queue is full")
+    @Test
+    public void givenWriteQueueFull_whenDeletingEmployees_thenRejectRightAway() {
+        // Given
+        given(employeeService.deleteEmployees(anyList())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        CompletableFuture<Integer> running = employeeAsyncService.deleteEmployees(List.of(1L));
+        CompletableFuture<Integer> queued = employeeAsyncService.deleteEmployees(List.of(2L));
+        // When
+        assertThrows(RejectedExecutionException.class, () -> employeeAsyncService.deleteEmployees(List.of(3L)));
+        release.countDown();
+        // Then
+        assertThat(running.join()).isEqualTo(1);
+        assertThat(queued.join()).isEqualTo(1);
+        assertThat(meterRegistry.get("employees.bulkhead.rejected").tag("kind", "write").counter().count())
+            .isEqualTo(1);
+    }
+
+    // Junit test for a read during a write burst
+    @DisplayName("Junit test for running reads while the write threads are busy")
+    @Test
+    public void givenWriteThreadsBusy_whenGettingEmployeesByIds_thenReturnWithoutWaiting() throws Exception {
+        // Given
+        given(employeeService.deleteEmployees(anyList())).willAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return 1;
+        });
+        EmployeeLookup lookup = EmployeeLookup.builder().employees(List.of()).missingIds(List.of(1L)).build();
+        given(employeeService.getEmployeesByIds(List.of(1L))).willReturn(lookup);
+        CompletableFuture<Integer> running = employeeAsyncService.deleteEmployees(List.of(1L));
+        CompletableFuture<Integer> queued = employeeAsyncService.deleteEmployees(List.of(2L));
+        // When
+        EmployeeLookup returnedLookup = employeeAsyncService.getEmployeesByIds(List.of(1L)).get(1, TimeUnit.SECONDS);
+        // Then
+        assertThat(returnedLookup).isEqualTo(lookup);
+        // The write thread may not have picked up the first delete yet
+        release.countDown();
+        assertThat(running.join() + queued.join()).isEqualTo(2);
+    }
+
+    // Junit test for the virtual thread mode
+    @DisplayName("Junit test for running the bulkheads on virtual threads")
+    @Test
+    public void givenVirtualThreads_whenGettingEmployeesByIds_thenRunOnVirtualThread() {
+        // Given
+        employeeAsyncService.destroy();
+        employeeAsyncService = new EmployeeAsyncServiceImpl(employeeService, employeeProperties, meterRegistry,
+            true);
+        given(employeeService.getEmployeesByIds(List.of(1L))).willAnswer(invocation -> EmployeeLookup.builder()
+            .employees(List.of())
+            .missingIds(Thread.currentThread().isVirtual() ? List.of(1L) : List.of())
+            .build());
+        // When
+        EmployeeLookup returnedLookup = employeeAsyncService.getEmployeesByIds(List.of(1L)).join();
+        // Then
+        assertThat(returnedLookup.getMissingIds()).containsExactly(1L);
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.project.test.service;
+
+import com.project.test.cache.EmailBloomFilter;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.exception.ResourceAlreadyExists;
+import com.project.test.model.Employee;
+import com.project.test.repository.EmployeeRepository;
+import com.project.test.service.impl.EmployeeGroupCommitter;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeGroupCommitterTests {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private EmployeeProperties employeeProperties;
+    private EmployeeGroupCommitter employeeGroupCommitter;
+
+    @BeforeEach
+    public void setup() {
+        employeeProperties = new EmployeeProperties();
+        employeeProperties.getGroupCommit().setEnabled(true);
+        employeeProperties.getGroupCommit().setMaxWait(Duration.ofMillis(200));
+        employeeGroupCommitter = new EmployeeGroupCommitter(employeeRepository, emailBloomFilter,
+            employeeProperties, transactionManager);
+        employeeGroupCommitter.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeeGroupCommitter.stop();
+    }
+
+    // Junit test for committing queued creates together
+    @DisplayName("Junit test for inserting queued employees in one batch")
+    @Test
+    public void givenQueuedEmployees_whenCommitting_thenInsertThemTogetherAndRejectDuplicates() {
+        // Given
+        given(emailBloomFilter.mightContain(anyString())).willReturn(true);
+        given(employeeRepository.findExistingEmails(anyList())).willReturn(List.of("known@gmail.com"));
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        // When
+        CompletableFuture<Employee> first = employeeGroupCommitter.submit(employee("mahmed@gmail.com"));
+        CompletableFuture<Employee> second = employeeGroupCommitter.submit(employee("asamir@gmail.com"));
+        CompletableFuture<Employee> duplicate = employeeGroupCommitter.submit(employee("mahmed@gmail.com"));
+        CompletableFuture<Employee> known = employeeGroupCommitter.submit(employee("known@gmail.com"));
+        // Then
+        assertThat(first.join().getEmail()).isEqualTo("mahmed@gmail.com");
+        assertThat(second.join().getEmail()).isEqualTo("asamir@gmail.com");
+        assertThat(assertThrows(CompletionException.class, duplicate::join))
+            .hasCauseInstanceOf(ResourceAlreadyExists.class);
+        assertThat(assertThrows(CompletionException.class, known::join))
+            .hasCauseInstanceOf(ResourceAlreadyExists.class);
+        verify(employeeRepository, times(1)).saveAll(argThat(employees -> ((List<?>) employees).size() == 2));
+    }
+
+    // Junit test for a batch rejected by the unique index
+    @DisplayName("Junit test for retrying employees one by one when the batch insert fails")
+    @Test
+    public void givenConcurrentDuplicate_whenCommitting_thenOnlyFailTheDuplicatedEmployee() {
+        // Given
+        DataIntegrityViolationException uniqueViolation = new DataIntegrityViolationException("duplicate key",
+            new ConstraintViolationException("duplicate key", new SQLException(), null,
+                ConstraintViolationException.ConstraintKind.UNIQUE, "uk_employees_email"));
+        given(employeeRepository.saveAll(anyList())).willThrow(uniqueViolation);
+        given(employeeRepository.saveAndFlush(argThat(employee -> employee != null
+            && employee.getEmail().equals("mahmed@gmail.com")))).willThrow(uniqueViolation);
+        given(employeeRepository.saveAndFlush(argThat(employee -> employee != null
+            && employee.getEmail().equals("asamir@gmail.com")))).willAnswer(invocation -> invocation.getArgument(0));
+        // When
+        CompletableFuture<Employee> duplicate = employeeGroupCommitter.submit(employee("mahmed@gmail.com"));
+        CompletableFuture<Employee> created = employeeGroupCommitter.submit(employee("asamir@gmail.com"));
+        // Then
+        assertThat(created.join().getEmail()).isEqualTo("asamir@gmail.com");
+        assertThat(assertThrows(CompletionException.class, duplicate::join))
+            .hasCauseInstanceOf(ResourceAlreadyExists.class);
+    }
+
+    // Junit test for stopping while a batch is stuck
+    @DisplayName("Junit test for failing the queued employees left behind by the shutdown")
+    @Test
+    public void givenStuckBatch_whenStopping_thenFailQueuedEmployees() throws InterruptedException {
+        // Given
+        employeeProperties.getGroupCommit().setMaxBatchSize(1);
+        employeeProperties.getGroupCommit().setShutdownTimeout(Duration.ofMillis(100));
+        CountDownLatch saving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> {
+            saving.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        CompletableFuture<Employee> committing = employeeGroupCommitter.submit(employee("mahmed@gmail.com"));
+        assertThat(saving.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Employee> queued = employeeGroupCommitter.submit(employee("asamir@gmail.com"));
+        // When
+        employeeGroupCommitter.stop();
+        // Then
+        assertThat(queued).failsWithin(Duration.ZERO)
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(IllegalStateException.class);
+        release.countDown();
+        assertThat(committing.join().getEmail()).isEqualTo("mahmed@gmail.com");
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email(email)
+            .build();
+    }
+
+}
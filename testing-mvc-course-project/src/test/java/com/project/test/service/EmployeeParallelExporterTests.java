@@ -0,0 +1,121 @@
+package com.project.test.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.config.ReadWriteRoutingDataSource;
+import com.project.test.service.impl.EmployeeParallelExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Uses two embedded databases that only differ by the email of their employee
+public class EmployeeParallelExporterTests {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private EmployeeProperties employeeProperties;
+    private EmployeeParallelExporter employeeParallelExporter;
+
+    @BeforeEach
+    public void setup() {
+        primary = embeddedDatabase("primary");
+        replica = embeddedDatabase("replica");
+        EmployeeProperties.Replica replicaProperties = new EmployeeProperties.Replica();
+        replicaProperties.setLagQuery("SELECT 0");
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primary, replica,
+            replicaProperties);
+        routingDataSource.afterPropertiesSet();
+        employeeProperties = new EmployeeProperties();
+        employeeProperties.getExport().setMaxConcurrent(1);
+        employeeParallelExporter = new EmployeeParallelExporter(new LazyConnectionDataSourceProxy(routingDataSource),
+            new ObjectMapper().registerModule(new JavaTimeModule()), employeeProperties);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        employeeParallelExporter.destroy();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    // Junit test for exporting from the read pool
+    @DisplayName("Junit test for exporting employees from the replica")
+    @Test
+    public void givenReplica_whenExporting_thenReadFromReplica() throws IOException {
+        // Given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // When
+        employeeParallelExporter.export(4, outputStream);
+        // Then
+        assertThat(outputStream.toString()).contains("\"email\":\"replica@gmail.com\"")
+            .doesNotContain("primary@gmail.com");
+    }
+
+    // Junit test for exports over the limit
+    @DisplayName("Junit test for rejecting an export while max-concurrent exports are running")
+    @Test
+    public void givenRunningExport_whenExporting_thenRejectRightAway() throws Exception {
+        // Given
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream blockedOutputStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CompletableFuture<Void> running = CompletableFuture.runAsync(() -> {
+            try {
+                employeeParallelExporter.export(1, blockedOutputStream);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        // When
+        assertThrows(RejectedExecutionException.class,
+            () -> employeeParallelExporter.export(1, new ByteArrayOutputStream()));
+        release.countDown();
+        // Then
+        running.get(5, TimeUnit.SECONDS);
+        employeeParallelExporter.export(1, new ByteArrayOutputStream());
+    }
+
+    private static EmbeddedDatabase embeddedDatabase(String node) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .setName("export-" + node)
+            .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE employees (id BIGINT PRIMARY KEY, first_name VARCHAR(255), "
+            + "last_name VARCHAR(255), email VARCHAR(255), version BIGINT, "
+            + "created_at TIMESTAMP WITH TIME ZONE, updated_at TIMESTAMP WITH TIME ZONE)");
+        jdbcTemplate.update("INSERT INTO employees VALUES (1, 'Mohamed', 'Ahmed', ?, 0, "
+            + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", node + "@gmail.com");
+        return database;
+    }
+
+}
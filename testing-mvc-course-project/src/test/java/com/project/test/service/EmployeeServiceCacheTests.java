@@ -0,0 +1,230 @@
+package com.project.test.service;
+
+import com.project.test.cache.EmailBloomFilter;
+import com.project.test.config.CacheConfig;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.config.ReadWriteRoutingDataSource;
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeePatch;
+import com.project.test.model.Employee;
+import com.project.test.repository.EmployeeCopyRepository;
+import com.project.test.repository.EmployeeRepository;
+import com.project.test.repository.EmployeeTombstoneRepository;
+import com.project.test.service.impl.EmployeeGroupCommitter;
+import com.project.test.service.impl.EmployeeParallelExporter;
+import com.project.test.service.impl.EmployeeServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+// The real service behind the Spring cache proxy, configured from application.properties like in
+// the application, the data access is mocked
+@SpringBootTest(classes = {CacheConfig.class, EmployeeServiceImpl.class})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+@EnableConfigurationProperties(EmployeeProperties.class)
+public class EmployeeServiceCacheTests {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+    @MockBean
+    private EmployeeTombstoneRepository employeeTombstoneRepository;
+    @MockBean
+    private EmployeeCopyRepository employeeCopyRepository;
+    @MockBean
+    private EntityManager entityManager;
+    @MockBean
+    private EmailBloomFilter emailBloomFilter;
+    @MockBean
+    private EmployeeGroupCommitter employeeGroupCommitter;
+    @MockBean
+    private EmployeeParallelExporter employeeParallelExporter;
+    @MockBean
+    private TransactionTemplate transactionTemplate;
+    @MockBean
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        employee = Employee.builder()
+            .id(1L)
+            .firstName("Mohamed")
+            .lastName("Ahmed")
+            .email("mahmed@gmail.com")
+            .build();
+        given(employeeRepository.findById(1L)).willAnswer(invocation -> Optional.of(employee.toBuilder().build()));
+        willAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+            .given(transactionTemplate).execute(any());
+    }
+
+    // Junit test for serving a known employee from the cache
+    @DisplayName("Junit test for getting employee by id twice with a single query")
+    @Test
+    public void givenCachedEmployee_whenGettingEmployeeById_thenSkipRepository() {
+        // Given
+        employeeService.getEmployeeById(1L);
+        // When
+        Optional<Employee> cachedEmployee = employeeService.getEmployeeById(1L);
+        // Then
+        assertThat(cachedEmployee).map(Employee::getEmail).contains("mahmed@gmail.com");
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    // Junit test for not caching the missing employees
+    @DisplayName("Junit test for getting a missing employee by id twice")
+    @Test
+    public void givenMissingEmployee_whenGettingEmployeeById_thenQueryEachTime() {
+        // Given
+        given(employeeRepository.findById(5L)).willReturn(Optional.empty());
+        employeeService.getEmployeeById(5L);
+        // When
+        employeeService.getEmployeeById(5L);
+        // Then
+        verify(employeeRepository, times(2)).findById(5L);
+    }
+
+    // Junit test for not caching the employees read from a replica
+    @DisplayName("Junit test for getting employee by id twice while reading from a replica")
+    @Test
+    public void givenReplicaReads_whenGettingEmployeeById_thenQueryEachTimeWithoutCaching() {
+        // Given
+        given(routingDataSource.isReadingFromReplica()).willReturn(true);
+        given(employeeRepository.findUncachedById(1L)).willReturn(Optional.of(employee));
+        employeeService.getEmployeeById(1L);
+        // When
+        Optional<Employee> replicaEmployee = employeeService.getEmployeeById(1L);
+        // Then
+        assertThat(replicaEmployee).contains(employee);
+        verify(employeeRepository, times(2)).findUncachedById(1L);
+        verify(employeeRepository, never()).findById(1L);
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(1L)).isNull();
+    }
+
+    // Junit test for replacing the cached employee on update
+    @DisplayName("Junit test for updating a cached employee")
+    @Test
+    public void givenCachedEmployee_whenUpdatingEmployee_thenServeUpdatedEmployee() {
+        // Given
+        employeeService.getEmployeeById(1L);
+        Employee updatedEmployee = employee.toBuilder().email("mohamed@gmail.com").build();
+        given(employeeRepository.saveAndFlush(any(Employee.class))).willAnswer(invocation -> invocation.getArgument(0));
+        // When
+        employeeService.updateEmployee(updatedEmployee);
+        // Then
+        assertThat(employeeService.getEmployeeById(1L)).map(Employee::getEmail).contains("mohamed@gmail.com");
+        verify(employeeRepository, times(1)).findById(1L);
+    }
+
+    // Junit test for replacing the cached employee on patch
+    @DisplayName("Junit test for patching a cached employee")
+    @Test
+    public void givenCachedEmployee_whenPatchingEmployee_thenServePatchedEmployee() {
+        // Given
+        employeeService.getEmployeeById(1L);
+        EmployeePatch patch = EmployeePatch.builder().lastName("Samir").build();
+        // When
+        employeeService.patchEmployee(1L, patch, null);
+        // Then
+        assertThat(employeeService.getEmployeeById(1L)).map(Employee::getLastName).contains("Samir");
+        verify(employeeRepository, times(2)).findById(1L);
+    }
+
+    // Junit test for evicting the deleted employee
+    @DisplayName("Junit test for deleting a cached employee")
+    @Test
+    public void givenCachedEmployee_whenDeletingEmployee_thenEvictIt() {
+        // Given
+        employeeService.getEmployeeById(1L);
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(1);
+        // When
+        employeeService.deleteEmployee(1L);
+        // Then
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(1L)).isNull();
+    }
+
+    // Junit test for evicting the employees deleted in bulk
+    @DisplayName("Junit test for deleting many employees including a cached one")
+    @Test
+    public void givenCachedEmployee_whenDeletingEmployees_thenEvictAll() {
+        // Given
+        employeeService.getEmployeeById(1L);
+        // When
+        employeeService.deleteEmployees(List.of(1L, 2L));
+        // Then
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(1L)).isNull();
+    }
+
+    // Junit test for evicting the employees updated in bulk
+    @DisplayName("Junit test for bulk updating employees including a cached one")
+    @Test
+    public void givenCachedEmployee_whenBulkUpdatingEmployees_thenEvictAll() {
+        // Given
+        employeeService.getEmployeeById(1L);
+        EmployeeBulkUpdate update = EmployeeBulkUpdate.builder()
+            .emailDomain("gmail.com")
+            .newEmailDomain("example.com")
+            .build();
+        // When
+        employeeService.bulkUpdateEmployees(update);
+        // Then
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(1L)).isNull();
+    }
+
+    @Nested
+    @ActiveProfiles("nocache")
+    public class WithoutCache {
+
+        // The nested class runs in its own application context
+        @Autowired
+        private EmployeeService uncachedEmployeeService;
+
+        @Autowired
+        private EmployeeRepository uncachedEmployeeRepository;
+
+        // Junit test for the nocache profile
+        @DisplayName("Junit test for getting employee by id twice without cache")
+        @Test
+        public void givenNoCacheProfile_whenGettingEmployeeByIdTwice_thenQueryEachTime() {
+            // Given
+            given(uncachedEmployeeRepository.findById(1L)).willReturn(Optional.of(employee));
+            uncachedEmployeeService.getEmployeeById(1L);
+            // When
+            uncachedEmployeeService.getEmployeeById(1L);
+            // Then
+            verify(uncachedEmployeeRepository, times(2)).findById(1L);
+        }
+
+    }
+
+}
@@ -1,25 +1,62 @@
 package com.project.test.service;
 
+import com.project.test.cache.EmailBloomFilter;
+import com.project.test.config.EmployeeProperties;
+import com.project.test.config.ReadWriteRoutingDataSource;
+import com.project.test.dto.EmployeeBulkUpdate;
+import com.project.test.dto.EmployeeChange;
+import com.project.test.dto.EmployeeChanges;
+import com.project.test.dto.EmployeeFieldsPage;
+import com.project.test.dto.EmployeeImportResult;
+import com.project.test.dto.EmployeeLookup;
+import com.project.test.dto.EmployeePage;
+import com.project.test.dto.EmployeePatch;
 import com.project.test.exception.ResourceAlreadyExists;
 import com.project.test.model.Employee;
+import com.project.test.model.EmployeeTombstone;
+import com.project.test.repository.EmployeeCopyRepository;
 import com.project.test.repository.EmployeeRepository;
+import com.project.test.repository.EmployeeTombstoneRepository;
+import com.project.test.service.impl.EmployeeGroupCommitter;
+import com.project.test.service.impl.EmployeeParallelExporter;
 import com.project.test.service.impl.EmployeeServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
-
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +64,26 @@ public class EmployeeServiceTests {
 
     @Mock
     private EmployeeRepository employeeRepository;
+    @Mock
+    private EmployeeTombstoneRepository employeeTombstoneRepository;
+    @Mock
+    private EmployeeCopyRepository employeeCopyRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EmailBloomFilter emailBloomFilter;
+    @Mock
+    private EmployeeGroupCommitter employeeGroupCommitter;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EmployeeParallelExporter employeeParallelExporter;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    @Spy
+    private EmployeeProperties employeeProperties = new EmployeeProperties();
     @InjectMocks
     private EmployeeServiceImpl employeeServiceImpl;
     private List<Employee> employeeList;
@@ -56,13 +113,14 @@ public class EmployeeServiceTests {
     public void givenEmployeeObject_whenCreatingNewEmployee_thenReturnEmployeeObject() {
         // Given
         Employee employee = employeeList.get(0);
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
         // When
         Employee createdEmployee = employeeServiceImpl.createEmployee(employee);
         // Then
         assertThat(createdEmployee).isNotNull();
+        verify(employeeRepository, never()).findByEmail(anyString());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof EmployeeChange change
+                && change.getType() == EmployeeChange.Type.UPSERT && change.getEmployee() == employee));
     }
 
     // Junit test for saving employee method when throwing an exception
@@ -71,12 +129,177 @@ public class EmployeeServiceTests {
     public void givenEmployeeObject_whenCreatingNewEmployee_thenThrowException() {
         // Given
         Employee employee = employeeList.get(0);
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), null,
+                                ConstraintViolationException.ConstraintKind.UNIQUE, "uk_employees_email")));
         // When
         assertThrows(ResourceAlreadyExists.class, () -> employeeServiceImpl.createEmployee(employee));
+    }
+
+    // Junit test for saving employee method when the primary key collides
+    @DisplayName("Junit test for saving employee method when another unique constraint fails")
+    @Test
+    public void givenCollidingId_whenCreatingNewEmployee_thenRethrowDataIntegrityViolation() {
+        // Given
+        Employee employee = employeeList.get(0);
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), null,
+                                ConstraintViolationException.ConstraintKind.UNIQUE, "employees_pkey")));
+        // When
+        assertThrows(DataIntegrityViolationException.class, () -> employeeServiceImpl.createEmployee(employee));
+    }
+
+    // Junit test for importing a CSV file
+    @DisplayName("Junit test for importing employees from a CSV file")
+    @Test
+    public void givenCsvFile_whenImportingEmployees_thenReturnInsertedAndSkippedCounts() {
+        // Given
+        InputStream csv = new ByteArrayInputStream("first_name,last_name,email\n".getBytes());
+        given(employeeCopyRepository.copyCsv(csv)).willReturn(new EmployeeCopyRepository.CopyResult(10, 8));
+        // When
+        EmployeeImportResult result = employeeServiceImpl.importEmployees(csv);
+        // Then
+        assertThat(result.getInserted()).isEqualTo(8);
+        assertThat(result.getSkipped()).isEqualTo(2);
+        verify(employeeRepository, never()).saveAll(anyList());
+    }
+
+    // Junit test for reading the change feed while an import runs
+    @DisplayName("Junit test for holding the change feed back while an import runs")
+    @Test
+    public void givenRunningImport_whenGettingChanges_thenReadUntilImportStartAndResyncAfterwards() {
+        // Given
+        employeeProperties.getChanges().setSettleTime(Duration.ZERO);
+        InputStream csv = new ByteArrayInputStream("first_name,last_name,email\n".getBytes());
+        List<Instant> untils = new ArrayList<>();
+        given(employeeRepository.findChangedAfter(any(), anyLong(), any(Instant.class), any()))
+                .willAnswer(invocation -> {
+                    untils.add(invocation.getArgument(2));
+                    return List.of();
+                });
+        List<Instant> readAt = new ArrayList<>();
+        given(employeeCopyRepository.copyCsv(csv)).willAnswer(invocation -> {
+            Thread.sleep(20);
+            readAt.add(Instant.now());
+            employeeServiceImpl.getEmployeeChanges(null, 10);
+            return new EmployeeCopyRepository.CopyResult(10, 8);
+        });
+        // When
+        employeeServiceImpl.importEmployees(csv);
+        Instant afterImport = Instant.now();
+        employeeServiceImpl.getEmployeeChanges(null, 10);
+        // Then
+        assertThat(untils.get(0)).isBefore(readAt.get(0).minusMillis(10));
+        assertThat(untils.get(1)).isAfterOrEqualTo(afterImport);
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof EmployeeChange change
+                && change.getType() == EmployeeChange.Type.RESYNC));
+    }
+
+    // Junit test for saving employee method with group commit enabled
+    @DisplayName("Junit test for saving employee method through the group commit queue")
+    @Test
+    public void givenGroupCommitEnabled_whenCreatingNewEmployee_thenQueueEmployee() {
+        // Given
+        Employee employee = employeeList.get(0);
+        given(employeeGroupCommitter.isEnabled()).willReturn(true);
+        given(employeeGroupCommitter.create(employee)).willReturn(employee);
+        // When
+        Employee createdEmployee = employeeServiceImpl.createEmployee(employee);
+        // Then
+        assertThat(createdEmployee).isEqualTo(employee);
+        verify(employeeRepository, never()).saveAndFlush(any(Employee.class));
+    }
+
+    // Junit test for saving employee method when another constraint is violated
+    @DisplayName("Junit test for saving employee method when a not null constraint fails")
+    @Test
+    public void givenEmployeeWithoutName_whenCreatingNewEmployee_thenRethrowDataIntegrityViolation() {
+        // Given
+        Employee employee = employeeList.get(0);
+        employee.setFirstName(null);
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("null value",
+                        new ConstraintViolationException("null value", new SQLException(), null,
+                                ConstraintViolationException.ConstraintKind.OTHER, null)));
+        // When
+        assertThrows(DataIntegrityViolationException.class, () -> employeeServiceImpl.createEmployee(employee));
+    }
+
+    // Junit test for creating many employees at once
+    @DisplayName("Junit test for creating employees in batch")
+    @Test
+    public void givenEmployeesList_whenCreatingEmployees_thenReturnSavedEmployees() {
+        // Given
+        given(emailBloomFilter.mightContain(anyString())).willReturn(true);
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(Collections.emptyList());
+        given(employeeRepository.saveAll(employeeList)).willReturn(employeeList);
+        // When
+        List<Employee> createdEmployees = employeeServiceImpl.createEmployees(employeeList);
+        // Then
+        assertThat(createdEmployees).hasSize(2);
+        verify(employeeRepository, never()).findByEmail(anyString());
+        verify(employeeRepository).flush();
+    }
+
+    // Junit test for creating more employees than the stream clients buffer
+    @DisplayName("Junit test for creating a large batch of employees with a single stream event")
+    @Test
+    public void givenMoreEmployeesThanStreamBuffer_whenCreatingEmployees_thenPublishResync() {
+        // Given
+        employeeProperties.getStream().setBufferSize(1);
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        // When
+        employeeServiceImpl.createEmployees(employeeList);
+        // Then
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof EmployeeChange change
+                && change.getType() == EmployeeChange.Type.RESYNC));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    // Junit test for creating many employees sent with ids
+    @DisplayName("Junit test for creating employees in batch ignoring their ids")
+    @Test
+    public void givenEmployeesWithIds_whenCreatingEmployees_thenInsertThemAsNewEmployees() {
+        // Given
+        employeeList.get(0).setVersion(3L);
+        given(emailBloomFilter.mightContain(anyString())).willReturn(false);
+        given(employeeRepository.saveAll(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        // When
+        List<Employee> createdEmployees = employeeServiceImpl.createEmployees(employeeList);
+        // Then
+        assertThat(createdEmployees).extracting(Employee::getId, Employee::getVersion)
+                .containsOnly(tuple(0L, 0L));
+    }
+
+    // Junit test for creating many employees with emails unknown to the Bloom filter
+    @DisplayName("Junit test for creating employees in batch with new emails")
+    @Test
+    public void givenNewEmails_whenCreatingEmployees_thenSkipExistingEmailsQuery() {
+        // Given
+        given(emailBloomFilter.mightContain(anyString())).willReturn(false);
+        given(employeeRepository.saveAll(employeeList)).willReturn(employeeList);
+        // When
+        List<Employee> createdEmployees = employeeServiceImpl.createEmployees(employeeList);
+        // Then
+        assertThat(createdEmployees).hasSize(2);
+        verify(employeeRepository, never()).findExistingEmails(anyCollection());
+        verify(emailBloomFilter).put(employeeList.get(0).getEmail());
+    }
+
+    // Junit test for creating many employees when one of the emails is already used
+    @DisplayName("Junit test for creating employees in batch when throw exception")
+    @Test
+    public void givenExistingEmail_whenCreatingEmployees_thenThrowException() {
+        // Given
+        given(emailBloomFilter.mightContain(anyString())).willReturn(true);
+        given(employeeRepository.findExistingEmails(anyCollection()))
+                .willReturn(List.of(employeeList.get(1).getEmail()));
+        // When
+        assertThrows(ResourceAlreadyExists.class, () -> employeeServiceImpl.createEmployees(employeeList));
         // Then verify that saving is never called
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).saveAll(anyList());
     }
 
     // Junit test for getting all employees
@@ -84,7 +307,8 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeesList_whenGetAllEmployees_thenReturnEmployeesList() {
         // Given
-        given(employeeRepository.findAll()).willReturn(employeeList);
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .willReturn(employeeList);
         // When
         List<Employee> employees = employeeServiceImpl.getEmployees();
         // Then
@@ -97,7 +321,8 @@ public class EmployeeServiceTests {
     @Test
     public void givenEmployeesList_whenGetAllEmployees_thenReturnEmptyList() {
         // Given
-        given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+                .willReturn(Collections.emptyList());
         // When
         List<Employee> employees = employeeServiceImpl.getEmployees();
         // Then
@@ -105,6 +330,93 @@ public class EmployeeServiceTests {
         assertThat(employees).hasSize(0);
     }
 
+    // Junit test for getting a page of employees when more rows exist after it
+    @DisplayName("Junit test for getting employees page with next cursor")
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGettingEmployeesPage_thenReturnPageWithNextCursor() {
+        // Given
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .willReturn(employeeList);
+        // When
+        EmployeePage page = employeeServiceImpl.getEmployeesPage(0L, 1);
+        // Then
+        assertThat(page.getEmployees()).hasSize(1);
+        assertThat(page.getNextCursor()).isEqualTo(1L);
+    }
+
+    // Junit test for getting the last page of employees
+    @DisplayName("Junit test for getting the last employees page")
+    @Test
+    public void givenFewerEmployeesThanLimit_whenGettingEmployeesPage_thenReturnPageWithoutNextCursor() {
+        // Given
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(11)))
+                .willReturn(employeeList);
+        // When
+        EmployeePage page = employeeServiceImpl.getEmployeesPage(0L, 10);
+        // Then
+        assertThat(page.getEmployees()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    // Junit test for getting only some fields of the employees
+    @DisplayName("Junit test for getting employees fields")
+    @Test
+    public void givenFields_whenGettingEmployeesFields_thenSelectOnlyThoseFields() {
+        // Given
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "email", "mahmed@gmail.com"));
+        given(employeeRepository.findFieldsByIdGreaterThan(List.of("id", "email"), 0L, 1001))
+                .willReturn(rows);
+        // When
+        EmployeeFieldsPage page = employeeServiceImpl.getEmployeesFields(List.of("id", "email"), 0L, 0);
+        // Then
+        assertThat(page.getEmployees()).isEqualTo(rows);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    // Junit test for paging through fields that don't include the id
+    @DisplayName("Junit test for getting pages of employees fields without their id")
+    @Test
+    public void givenFieldsWithoutId_whenGettingEmployeesFields_thenReturnNextCursor() {
+        // Given
+        given(employeeRepository.findFieldsByIdGreaterThan(List.of("id", "email"), 0L, 3))
+                .willReturn(List.of(
+                        Map.of("id", 1L, "email", "mahmed@gmail.com"),
+                        Map.of("id", 2L, "email", "asamir@gmail.com"),
+                        Map.of("id", 5L, "email", "mohamed@gmail.com")));
+        // When
+        EmployeeFieldsPage page = employeeServiceImpl.getEmployeesFields(List.of("email"), 0L, 2);
+        // Then
+        assertThat(page.getEmployees()).containsExactly(
+                Map.of("email", "mahmed@gmail.com"),
+                Map.of("email", "asamir@gmail.com"));
+        assertThat(page.getNextCursor()).isEqualTo(2L);
+    }
+
+    // Junit test for getting unknown fields of the employees
+    @DisplayName("Junit test for getting employees fields when throw exception")
+    @Test
+    public void givenUnknownField_whenGettingEmployeesFields_thenThrowException() {
+        // When
+        assertThrows(IllegalArgumentException.class,
+                () -> employeeServiceImpl.getEmployeesFields(List.of("id", "salary"), 0L, 0));
+        // Then
+        verify(employeeRepository, never()).findFieldsByIdGreaterThan(anyList(), anyLong(), anyInt());
+    }
+
+    // Junit test for exporting all employees
+    @DisplayName("Junit test for exporting all employees")
+    @Test
+    public void givenEmployeesStream_whenExportingEmployees_thenConsumeAndDetachEachEmployee() {
+        // Given
+        given(employeeRepository.streamAll(1000)).willReturn(employeeList.stream());
+        List<Employee> exported = new ArrayList<>();
+        // When
+        employeeServiceImpl.exportEmployees(exported::add);
+        // Then
+        assertThat(exported).containsExactlyElementsOf(employeeList);
+        verify(entityManager, times(employeeList.size())).detach(any(Employee.class));
+    }
+
     // Junit test for getting employee by id
     @DisplayName("Junit test for getting employee by id")
     @Test
@@ -118,13 +430,39 @@ public class EmployeeServiceTests {
         assertThat(returnedEmployee).isNotNull();
     }
 
+    // Junit test for getting employee by email
+    @DisplayName("Junit test for getting employee by email")
+    @Test
+    public void givenEmployeeEmail_whenGettingEmployeeByEmail_thenReturnEmployeeObject() {
+        // Given
+        Employee employee = employeeList.get(0);
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        // When
+        Optional<Employee> returnedEmployee = employeeServiceImpl.getEmployeeByEmail(employee.getEmail());
+        // Then
+        assertThat(returnedEmployee).contains(employee);
+    }
+
+    // Junit test for getting many employees by their ids
+    @DisplayName("Junit test for getting employees by ids")
+    @Test
+    public void givenEmployeeIds_whenGettingEmployeesByIds_thenReturnEmployeesInRequestOrder() {
+        // Given
+        given(employeeRepository.findAllById(List.of(2L, 5L, 1L))).willReturn(employeeList);
+        // When
+        EmployeeLookup lookup = employeeServiceImpl.getEmployeesByIds(List.of(2L, 5L, 1L, 2L));
+        // Then
+        assertThat(lookup.getEmployees()).extracting(Employee::getId).containsExactly(2L, 1L);
+        assertThat(lookup.getMissingIds()).containsExactly(5L);
+    }
+
     // Junit test for updating employee
     @DisplayName("Junit test for updating employee")
     @Test
     public void givenEmployeeObject_whenUpdatingEmployee_thenReturnUpdatedEmployee() {
         // Given
         Employee employee = employeeList.get(0);
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
         String updatedEmail = "mohamed@gmail.com";
         employee.setEmail(updatedEmail);
         // When
@@ -134,16 +472,246 @@ public class EmployeeServiceTests {
         assertThat(returnedEmployee.getEmail()).isEqualTo(updatedEmail);
     }
 
+    // Junit test for updating employee with an email that is taken
+    @DisplayName("Junit test for updating employee with an existing email")
+    @Test
+    public void givenExistingEmail_whenUpdatingEmployee_thenThrowException() {
+        // Given
+        Employee employee = employeeList.get(0);
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), null,
+                                ConstraintViolationException.ConstraintKind.UNIQUE, "uk_employees_email")));
+        // When
+        assertThrows(ResourceAlreadyExists.class, () -> employeeServiceImpl.updateEmployee(employee));
+        // Then
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    // Junit test for patching employee
+    @DisplayName("Junit test for patching employee")
+    @Test
+    public void givenEmployeePatch_whenPatchingEmployee_thenOnlyChangeProvidedFields() {
+        // Given
+        Employee employee = employeeList.get(0);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        EmployeePatch patch = EmployeePatch.builder().email("mohamed@gmail.com").build();
+        // When
+        Employee patchedEmployee = employeeServiceImpl.patchEmployee(1L, patch, null).get();
+        // Then
+        assertThat(patchedEmployee.getEmail()).isEqualTo("mohamed@gmail.com");
+        assertThat(patchedEmployee.getFirstName()).isEqualTo("Mohamed");
+        assertThat(patchedEmployee.getLastName()).isEqualTo("Ahmed");
+        verify(employeeRepository).flush();
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    // Junit test for patching employee with an outdated version
+    @DisplayName("Junit test for patching employee when throw exception")
+    @Test
+    public void givenOutdatedVersion_whenPatchingEmployee_thenThrowException() {
+        // Given
+        Employee employee = employeeList.get(0);
+        employee.setVersion(4L);
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+        EmployeePatch patch = EmployeePatch.builder().email("mohamed@gmail.com").build();
+        // When
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> employeeServiceImpl.patchEmployee(1L, patch, 3L));
+        // Then
+        assertThat(employee.getEmail()).isEqualTo("mahmed@gmail.com");
+    }
+
+    // Junit test for patching employee that doesn't exist
+    @DisplayName("Junit test for patching employee (Negative Scenario)")
+    @Test
+    public void givenInvalidEmployeeId_whenPatchingEmployee_thenReturnEmpty() {
+        // Given
+        given(employeeRepository.findById(5L)).willReturn(Optional.empty());
+        // When
+        Optional<Employee> patchedEmployee = employeeServiceImpl.patchEmployee(5L, new EmployeePatch(), null);
+        // Then
+        assertThat(patchedEmployee).isEmpty();
+        verify(employeeRepository, never()).flush();
+    }
+
+    // Junit test for bulk updating employees
+    @DisplayName("Junit test for bulk updating employees one id range at a time")
+    @Test
+    public void givenBulkUpdate_whenUpdatingEmployees_thenUpdateEachIdRangeInItsOwnTransaction() {
+        // Given
+        EmployeeBulkUpdate update = EmployeeBulkUpdate.builder()
+                .emailDomain("gmail.com")
+                .newEmailDomain("example.com")
+                .build();
+        given(employeeRepository.findMinId()).willReturn(Optional.of(1L));
+        given(employeeRepository.findMaxId()).willReturn(Optional.of(15_000L));
+        given(transactionTemplate.execute(any())).willAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        List<Instant> updatedAts = new ArrayList<>();
+        given(employeeRepository.bulkUpdate(eq(update), eq(1L), eq(10_000L), any(Instant.class))).willAnswer(invocation -> {
+            updatedAts.add(invocation.getArgument(3));
+            Thread.sleep(5);
+            return 7;
+        });
+        given(employeeRepository.bulkUpdate(eq(update), eq(10_001L), eq(20_000L), any(Instant.class))).willAnswer(invocation -> {
+            updatedAts.add(invocation.getArgument(3));
+            return 3;
+        });
+        // When
+        int updated = employeeServiceImpl.bulkUpdateEmployees(update);
+        // Then
+        assertThat(updated).isEqualTo(10);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(employeeRepository, never()).findAll();
+        // Each chunk is stamped when it runs
+        assertThat(updatedAts.get(1)).isAfter(updatedAts.get(0));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof EmployeeChange change
+                && change.getType() == EmployeeChange.Type.RESYNC));
+    }
+
+    // Junit test for bulk updating employees without a filter
+    @DisplayName("Junit test for bulk updating employees without filter")
+    @Test
+    public void givenBulkUpdateWithoutFilter_whenUpdatingEmployees_thenThrowIllegalArgument() {
+        // Given
+        EmployeeBulkUpdate update = EmployeeBulkUpdate.builder().newLastName("Ahmed").build();
+        // When
+        assertThrows(IllegalArgumentException.class, () -> employeeServiceImpl.bulkUpdateEmployees(update));
+        // Then
+        verify(employeeRepository, never()).bulkUpdate(any(), anyLong(), anyLong(), any());
+    }
+
     // Junit test for deleting employee
     @DisplayName("Junit test for deleting employee")
     @Test
-    public void givenEmployeeId_whenDeletingEmployee_thenNoThing() {
+    public void givenEmployeeId_whenDeletingEmployee_thenReturnDeleted() {
         // Given
-        willDoNothing().given(employeeRepository).deleteById(1L);
+        given(employeeRepository.deleteEmployeeById(1L)).willReturn(1);
         // When
-        employeeServiceImpl.deleteEmployee(1L);
+        boolean deleted = employeeServiceImpl.deleteEmployee(1L);
         // Then
-        verify(employeeRepository, times(1)).deleteById(1L);
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, never()).findById(1L);
+        verify(employeeRepository, never()).deleteById(1L);
+        verify(entityManager).persist(any(EmployeeTombstone.class));
+    }
+
+    // Junit test for deleting many employees
+    @DisplayName("Junit test for deleting many employees")
+    @Test
+    public void givenEmployeeIds_whenDeletingEmployees_thenReturnDeletedCount() {
+        // Given
+        List<Long> ids = List.of(1L, 2L, 5L);
+        given(employeeRepository.lockExistingIds(ids)).willReturn(List.of(1L, 2L));
+        given(employeeRepository.deleteEmployeesByIds(List.of(1L, 2L))).willReturn(2);
+        // When
+        int deleted = employeeServiceImpl.deleteEmployees(ids);
+        // Then
+        assertThat(deleted).isEqualTo(2);
+        verify(entityManager, times(2)).persist(any(EmployeeTombstone.class));
+    }
+
+    // Junit test for deleting more employees than the stream clients buffer
+    @DisplayName("Junit test for deleting many employees with a single stream event")
+    @Test
+    public void givenMoreIdsThanStreamBuffer_whenDeletingEmployees_thenPublishResync() {
+        // Given
+        employeeProperties.getStream().setBufferSize(1);
+        List<Long> ids = List.of(1L, 2L);
+        given(employeeRepository.lockExistingIds(ids)).willReturn(ids);
+        given(employeeRepository.deleteEmployeesByIds(ids)).willReturn(2);
+        // When
+        employeeServiceImpl.deleteEmployees(ids);
+        // Then
+        verify(entityManager, times(2)).persist(any(EmployeeTombstone.class));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof EmployeeChange change
+                && change.getType() == EmployeeChange.Type.RESYNC));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    // Junit test for reading the change feed
+    @DisplayName("Junit test for reading updated and deleted employees in change order")
+    @Test
+    public void givenUpdatesAndDeletes_whenGettingChanges_thenReturnThemMergedWithNextCursor() {
+        // Given
+        Instant changedAt = Instant.now().minusSeconds(60);
+        employeeList.get(0).setUpdatedAt(changedAt);
+        employeeList.get(1).setUpdatedAt(changedAt.plusSeconds(2));
+        given(employeeRepository.findChangedAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(Limit.of(3))))
+                .willReturn(employeeList);
+        given(employeeTombstoneRepository.findDeletedAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(Limit.of(3))))
+                .willReturn(List.of(new EmployeeTombstone(3L, changedAt.plusSeconds(1))));
+        // When
+        EmployeeChanges changes = employeeServiceImpl.getEmployeeChanges(null, 2);
+        // Then
+        assertThat(changes.getChanges()).extracting(EmployeeChange::getId).containsExactly(1L, 3L);
+        assertThat(changes.getChanges()).extracting(EmployeeChange::getType)
+                .containsExactly(EmployeeChange.Type.UPSERT, EmployeeChange.Type.DELETE);
+        assertThat(changes.isHasMore()).isTrue();
+        // The next call resumes right after the tombstone
+        given(employeeRepository.findChangedAfter(eq(changedAt.plusSeconds(1)), eq(3L), any(Instant.class), eq(Limit.of(3))))
+                .willReturn(List.of(employeeList.get(1)));
+        EmployeeChanges nextChanges = employeeServiceImpl.getEmployeeChanges(changes.getNextCursor(), 2);
+        assertThat(nextChanges.getChanges()).extracting(EmployeeChange::getId).containsExactly(2L);
+        assertThat(nextChanges.isHasMore()).isFalse();
+    }
+
+    // Junit test for polling the change feed of an empty table
+    @DisplayName("Junit test for moving the change feed cursor forward on an empty table")
+    @Test
+    public void givenEmptyTable_whenPollingChanges_thenMoveCursorUpToSettledChanges() {
+        // Given
+        List<Instant> cursors = new ArrayList<>();
+        given(employeeRepository.findChangedAfter(any(), anyLong(), any(Instant.class), any()))
+                .willAnswer(invocation -> {
+                    cursors.add(invocation.getArgument(0));
+                    return List.of();
+                });
+        Instant settledBefore = Instant.now().minus(employeeProperties.getChanges().getSettleTime());
+        EmployeeChanges changes = employeeServiceImpl.getEmployeeChanges(null, 10);
+        // When
+        EmployeeChanges nextChanges = employeeServiceImpl.getEmployeeChanges(changes.getNextCursor(), 10);
+        // Then
+        assertThat(nextChanges.getChanges()).isEmpty();
+        assertThat(nextChanges.isHasMore()).isFalse();
+        assertThat(cursors).hasSize(2);
+        assertThat(cursors.get(0)).isEqualTo(Instant.EPOCH);
+        assertThat(cursors.get(1)).isAfterOrEqualTo(settledBefore);
+    }
+
+    // Junit test for resuming the change feed after a long quiet period
+    @DisplayName("Junit test for reading the change feed with a cursor older than the tombstone retention")
+    @Test
+    public void givenCursorOlderThanRetention_whenGettingChanges_thenRejectOnlyBeforePurgedTombstones() {
+        // Given
+        Instant retentionStart = Instant.now().minus(employeeProperties.getChanges().getTombstoneRetention());
+        String cursor = encodeCursor(retentionStart.minus(Duration.ofDays(10)), 1L);
+        // When
+        EmployeeChanges changes = employeeServiceImpl.getEmployeeChanges(cursor, 10);
+        given(employeeTombstoneRepository.findPurgedUntil())
+                .willReturn(Optional.of(retentionStart.minus(Duration.ofDays(20))));
+        EmployeeChanges changesAfterPurge = employeeServiceImpl.getEmployeeChanges(cursor, 10);
+        given(employeeTombstoneRepository.findPurgedUntil())
+                .willReturn(Optional.of(retentionStart.minus(Duration.ofDays(5))));
+        // Then
+        assertThat(changes.getChanges()).isEmpty();
+        assertThat(changesAfterPurge.getChanges()).isEmpty();
+        assertThrows(IllegalArgumentException.class, () -> employeeServiceImpl.getEmployeeChanges(cursor, 10));
+    }
+
+    // Junit test for reading the change feed with a malformed cursor
+    @DisplayName("Junit test for reading the change feed with an invalid cursor")
+    @Test
+    public void givenInvalidCursor_whenGettingChanges_thenThrowIllegalArgument() {
+        // When
+        assertThrows(IllegalArgumentException.class, () -> employeeServiceImpl.getEmployeeChanges("not a cursor", 10));
+        // Then
+        verify(employeeRepository, never()).findChangedAfter(any(), anyLong(), any(), any());
+    }
+
+    private static String encodeCursor(Instant changedAt, long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((changedAt + "|" + id).getBytes());
     }
 
 }
@@ -0,0 +1,116 @@
+package com.project.test.sql;
+
+import com.project.test.config.EmployeeProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The observer is shut down before reading the output, which waits for the pending log entries
+@ExtendWith(OutputCaptureExtension.class)
+public class SqlObserverTests {
+
+    private EmbeddedDatabase database;
+    private EmployeeProperties.Sql properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        database = new EmbeddedDatabaseBuilder()
+            .setType(EmbeddedDatabaseType.H2)
+            .setName("sql-observer")
+            .build();
+        new JdbcTemplate(database).execute("CREATE TABLE node (id INT, name VARCHAR(20))");
+        new JdbcTemplate(database).update("INSERT INTO node VALUES (1, 'primary'), (2, 'replica')");
+        properties = new EmployeeProperties.Sql();
+        properties.setSampleRate(0);
+        properties.setSlowThreshold(Duration.ofHours(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    // Junit test for timing queries per shape
+    @DisplayName("Junit test for timing the queries that only differ by their literals or IN lists together")
+    @Test
+    public void givenQueriesOfTheSameShape_whenExecuting_thenTimeThemTogether() throws InterruptedException {
+        // Given
+        SqlObserver sqlObserver = new SqlObserver(properties, meterRegistry);
+        JdbcTemplate jdbcTemplate = observedJdbcTemplate(sqlObserver);
+        // When
+        jdbcTemplate.queryForList("SELECT name FROM node WHERE id IN (?, ?)", String.class, 1, 2);
+        jdbcTemplate.queryForList("SELECT name FROM node WHERE id IN (?, ?, ?)", String.class, 1, 2, 3);
+        jdbcTemplate.queryForList("SELECT name FROM node WHERE name = 'primary'", String.class);
+        sqlObserver.destroy();
+        // Then
+        assertThat(meterRegistry.get("employees.sql").tag("shape", "SELECT name FROM node WHERE id IN (?...)")
+            .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("employees.sql").tag("shape", "SELECT name FROM node WHERE name = ?")
+            .timer().count()).isEqualTo(1);
+    }
+
+    // Junit test for logging slow queries
+    @DisplayName("Junit test for logging the slow queries with their bind values and call site")
+    @Test
+    public void givenSlowQuery_whenExecuting_thenLogBindValuesAndCallSite(CapturedOutput output)
+        throws InterruptedException {
+        // Given
+        properties.setSlowThreshold(Duration.ZERO);
+        SqlObserver sqlObserver = new SqlObserver(properties, meterRegistry);
+        JdbcTemplate jdbcTemplate = observedJdbcTemplate(sqlObserver);
+        // When
+        jdbcTemplate.queryForObject("SELECT id FROM node WHERE name = ?", Integer.class, "replica");
+        sqlObserver.destroy();
+        // Then
+        assertThat(output.getOut().lines().filter(line -> line.contains("Slow query")).toList())
+            .singleElement()
+            .satisfies(line -> assertThat(line)
+                .contains("from " + SqlObserverTests.class.getName())
+                .contains("SELECT id FROM node WHERE name = ?")
+                .contains("replica"));
+    }
+
+    // Junit test for sampling the other queries
+    @DisplayName("Junit test for logging the sampled queries without their bind values")
+    @Test
+    public void givenSampledQuery_whenExecuting_thenLogItWithoutBindValues(CapturedOutput output)
+        throws InterruptedException {
+        // Given
+        properties.setSampleRate(1);
+        SqlObserver sqlObserver = new SqlObserver(properties, meterRegistry);
+        JdbcTemplate jdbcTemplate = observedJdbcTemplate(sqlObserver);
+        // When
+        jdbcTemplate.queryForObject("SELECT id FROM node WHERE name = ?", Integer.class, "replica");
+        sqlObserver.destroy();
+        // Then
+        assertThat(output.getOut()).doesNotContain("Slow query");
+        assertThat(output.getOut().lines().filter(line -> line.contains("Query took")).toList())
+            .singleElement()
+            .satisfies(line -> assertThat(line)
+                .contains("SELECT id FROM node WHERE name = ?")
+                .doesNotContain("replica"));
+    }
+
+    private JdbcTemplate observedJdbcTemplate(SqlObserver sqlObserver) {
+        return new JdbcTemplate(ProxyDataSourceBuilder.create("dataSource", database)
+            .listener(sqlObserver)
+            .build());
+    }
+
+}